@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient-style adaptive limit on in-flight upstream calls. Each completed call compares its round-trip time with
+ * the minimum observed RTT: the limit shrinks in proportion when latency inflates and grows by about its square
+ * root when latency stays flat, both smoothed over several calls. A timed-out or throttled call halves the limit at
+ * once, but only one halving is taken per wave of such calls: calls sent before the last halving do not halve it
+ * again. Calls over the limit wait briefly for a slot and are then rejected.
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    // Re-learn the minimum RTT periodically so a lasting shift in baseline latency is picked up
+    private static final int MIN_RTT_RESET_SAMPLES = 500;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+
+    private double limit;
+    private int inFlight;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samples;
+    private boolean halved;
+    private long lastHalvedNanos;
+
+    AdaptiveConcurrencyLimiter(TransformConfig config) {
+        this.minLimit = Math.max(1, config.getConcurrencyLimitMin());
+        this.maxLimit = Math.max(minLimit, config.getConcurrencyLimitMax());
+        this.limit = Math.min(maxLimit, Math.max(minLimit, config.getConcurrencyLimitInitial()));
+        this.rttTolerance = Math.max(1.0, config.getConcurrencyLimitRttTolerance());
+        this.smoothing = Math.min(1.0, Math.max(0.01, config.getConcurrencyLimitSmoothing()));
+    }
+
+    /**
+     * Takes a slot, waiting up to the given time for one to free up.
+     *
+     * @return {@code false} if the limit is still reached after the wait
+     */
+    boolean acquire(long maxWaitMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            while (inFlight >= (int) limit) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = slotFreed.awaitNanos(remainingNanos);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a slot without waiting, for callers that must not block.
+     */
+    boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot and adapts the limit to the call's round-trip time.
+     *
+     * @param rttNanos Round-trip time of the call
+     * @param dropped  Whether the call timed out or was throttled, which is taken as a sign of overload
+     */
+    void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            int inFlightAtSample = inFlight--;
+            int previousLimit = (int) limit;
+            update(rttNanos, dropped, inFlightAtSample);
+            if ((int) limit > previousLimit) {
+                slotFreed.signalAll();
+            } else {
+                slotFreed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(long rttNanos, boolean dropped, int inFlightAtSample) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (++samples % MIN_RTT_RESET_SAMPLES == 0) {
+            minRttNanos = rttNanos;
+        } else {
+            minRttNanos = Math.min(minRttNanos, rttNanos);
+        }
+        if (dropped) {
+            long now = System.nanoTime();
+            if (!halved || now - rttNanos - lastHalvedNanos >= 0) {
+                limit = Math.max(minLimit, limit / 2);
+                halved = true;
+                lastHalvedNanos = now;
+            }
+            return;
+        }
+        // A limit that is far from being used says nothing about how much more load upstream can take
+        if (inFlightAtSample < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * minRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.min(maxLimit, Math.max(minLimit, newLimit));
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Pool of API keys of one backend. Each call goes out with the key that has the most requests left in its quota,
+ * as last reported by the rate-limit response headers and counted down by the calls in flight since; a call that
+ * gets no response gives its request back. A key that is
+ * throttled or has used up its quota cools down until the server is ready for it again, so the pool sustains
+ * roughly the combined quota of its keys. When the cooldown ends, the key's budget is its last reported quota
+ * limit, or a single probe call when no limit was reported, so a recovered key is not flooded before the server
+ * reports on it again. The budgets are plain atomic counters; only the pacing of calls within one key takes that
+ * key's rate limiter lock.
+ */
+final class ApiKeyPool {
+
+    private static final Log log = LogFactory.getLog(ApiKeyPool.class);
+
+    // Budget of a key no response has reported on yet; such keys are tried first to learn their quota
+    private static final long UNKNOWN = Long.MAX_VALUE / 2;
+    // Budget of a key back from a cooldown whose quota limit was never reported
+    private static final long PROBE_BUDGET = 1;
+    private static final long NOT_COOLING_DOWN = Long.MIN_VALUE;
+
+    /**
+     * One API key and what is known about its quota.
+     */
+    static final class ApiKey {
+
+        private final int index;
+        private final Map<String, String> authHeaders;
+        private final UpstreamRateLimiter rateLimiter;
+        // Requests left in the quota, less the calls in flight, which the server has not counted yet
+        private final AtomicLong remainingRequests = new AtomicLong(UNKNOWN);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong coolDownUntilNanos = new AtomicLong(NOT_COOLING_DOWN);
+        private volatile long requestLimit = -1;
+
+        private ApiKey(int index, Map<String, String> authHeaders, UpstreamRateLimiter rateLimiter) {
+            this.index = index;
+            this.authHeaders = authHeaders;
+            this.rateLimiter = rateLimiter;
+        }
+
+        Map<String, String> getAuthHeaders() {
+            return authHeaders;
+        }
+
+        /**
+         * Reserves a call with the key's rate limiter.
+         *
+         * @return Nanoseconds the caller must wait before sending, or -1 when the call should not be sent
+         */
+        long reserve() {
+            return rateLimiter != null ? rateLimiter.reserve() : 0;
+        }
+
+        /**
+         * Reserves a call only if the key's rate limiter lets it go out right away.
+         */
+        boolean tryReserve() {
+            return rateLimiter == null || rateLimiter.tryReserve();
+        }
+
+        private boolean isCoolingDown(long now) {
+            long until = coolDownUntilNanos.get();
+            return until != NOT_COOLING_DOWN && now - until < 0;
+        }
+
+        private void coolDown(long now, long durationNanos) {
+            coolDownUntilNanos.set(now + durationNanos);
+        }
+
+        /**
+         * Ends a cooldown that has run out. Only the caller whose compare-and-set succeeds ends it, and a cooldown
+         * started in the meantime makes it fail, so a new cooldown is never lost.
+         *
+         * @return Whether this call ended the cooldown
+         */
+        private boolean endCoolDown(long now) {
+            long until = coolDownUntilNanos.get();
+            return until != NOT_COOLING_DOWN && now - until >= 0
+                    && coolDownUntilNanos.compareAndSet(until, NOT_COOLING_DOWN);
+        }
+    }
+
+    private final ApiKey[] keys;
+    private final long cooldownNanos;
+
+    /**
+     * @param credentials Auth headers of each key
+     */
+    ApiKeyPool(List<Map<String, String>> credentials, TransformConfig config) {
+        this.keys = new ApiKey[credentials.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new ApiKey(i, credentials.get(i), config.isRateLimitEnabled()
+                    ? new UpstreamRateLimiter(config.getRateLimitMaxPacingDelayMillis()) : null);
+        }
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(config.getApiKeyCooldownMillis());
+    }
+
+    /**
+     * Picks the key for a call and counts the call against its budget. When every key is cooling down, the one
+     * that is ready soonest is returned and its rate limiter decides whether the call may wait for it. Every
+     * acquired key must be handed back through {@link #onResponse} or {@link #release}.
+     */
+    ApiKey acquire() {
+        ApiKey chosen;
+        if (keys.length == 1) {
+            chosen = keys[0];
+        } else {
+            long now = System.nanoTime();
+            // Scan from a random offset so that keys with equal budgets share the load
+            int offset = ThreadLocalRandom.current().nextInt(keys.length);
+            chosen = null;
+            long chosenBudget = Long.MIN_VALUE;
+            ApiKey soonestReady = null;
+            for (int i = 0; i < keys.length; i++) {
+                ApiKey key = keys[(offset + i) % keys.length];
+                if (key.isCoolingDown(now)) {
+                    if (soonestReady == null
+                            || key.coolDownUntilNanos.get() - soonestReady.coolDownUntilNanos.get() < 0) {
+                        soonestReady = key;
+                    }
+                    continue;
+                }
+                long budget = budget(key, now);
+                if (budget > chosenBudget) {
+                    chosen = key;
+                    chosenBudget = budget;
+                }
+            }
+            if (chosen == null) {
+                chosen = soonestReady;
+            }
+        }
+        chosen.remainingRequests.decrementAndGet();
+        chosen.inFlight.incrementAndGet();
+        return chosen;
+    }
+
+    /**
+     * Learns the key's remaining quota from the response to a call made with it.
+     *
+     * @param header     Looks up a response header by name, returning {@code null} when it is absent
+     * @param statusCode HTTP status of the response
+     */
+    void onResponse(ApiKey key, Function<String, String> header, int statusCode) {
+        key.inFlight.decrementAndGet();
+        if (key.rateLimiter != null) {
+            key.rateLimiter.onResponse(header, statusCode);
+        }
+        long now = System.nanoTime();
+        long requestLimit = UpstreamRateLimiter.parseLong(header.apply("x-ratelimit-limit-requests"));
+        if (requestLimit > 0) {
+            key.requestLimit = requestLimit;
+        }
+        long requestsLeft = UpstreamRateLimiter.parseLong(header.apply("x-ratelimit-remaining-requests"));
+        if (requestsLeft >= 0) {
+            // Calls still in flight were counted down already but are not in the server's figure yet
+            key.remainingRequests.set(requestsLeft - key.inFlight.get());
+            if (requestsLeft == 0) {
+                long requestsResetNanos = UpstreamRateLimiter.parseDurationNanos(
+                        header.apply("x-ratelimit-reset-requests"));
+                coolDown(key, now, requestsResetNanos > 0 ? requestsResetNanos : cooldownNanos,
+                        "request quota used up");
+            }
+        }
+        long tokensLeft = UpstreamRateLimiter.parseLong(firstNonNull(header.apply("x-ratelimit-remaining-tokens"),
+                header.apply("x-ratelimitbysize-remaining-minute")));
+        if (tokensLeft == 0) {
+            long tokensResetNanos = UpstreamRateLimiter.parseDurationNanos(header.apply("x-ratelimit-reset-tokens"));
+            coolDown(key, now, tokensResetNanos > 0 ? tokensResetNanos : cooldownNanos, "token quota used up");
+        }
+        if (statusCode == 429) {
+            long retryAfterNanos = UpstreamRateLimiter.parseRetryAfterNanos(header.apply("Retry-After"));
+            if (retryAfterNanos != 0) {
+                coolDown(key, now, retryAfterNanos > 0 ? retryAfterNanos : cooldownNanos, "throttled");
+            }
+        }
+    }
+
+    /**
+     * Hands back a key whose call got no response, because it failed, was cancelled or was never sent. The server
+     * did not report on the call, so its request goes back into the budget.
+     */
+    void release(ApiKey key) {
+        key.inFlight.decrementAndGet();
+        key.remainingRequests.incrementAndGet();
+    }
+
+    /**
+     * Returns the budget of a key that is not cooling down. The first caller after a cooldown ran out replaces the
+     * budget reported before it, since the quota window has moved on since.
+     */
+    private static long budget(ApiKey key, long now) {
+        if (key.endCoolDown(now)) {
+            long limit = key.requestLimit;
+            key.remainingRequests.set(limit > 0 ? limit - key.inFlight.get() : PROBE_BUDGET);
+        }
+        return key.remainingRequests.get();
+    }
+
+    private void coolDown(ApiKey key, long now, long durationNanos, String reason) {
+        key.coolDown(now, durationNanos);
+        if (keys.length > 1 && log.isDebugEnabled()) {
+            log.debug("API key #" + key.index + " " + reason + ", cooling down for "
+                    + TimeUnit.NANOSECONDS.toMillis(durationNanos) + " ms");
+        }
+    }
+
+    private static String firstNonNull(String first, String second) {
+        return first != null ? first : second;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Call counters of one LLM backend. Updated on every upstream call without locking, so they are cheap enough to
+ * stay always on. Published as a {@link BackendMetricsMXBean} while the backend's service is open.
+ */
+final class BackendMetrics implements BackendMetricsMXBean {
+
+    private static final Log log = LogFactory.getLog(BackendMetrics.class);
+
+    private final String backendName;
+    private final Supplier<Map<String, Double>> endpointWeights;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+
+    private ObjectName registeredName;
+
+    /**
+     * @param endpointWeights Current share of calls of each endpoint, by URL
+     */
+    BackendMetrics(String backendName, Supplier<Map<String, Double>> endpointWeights) {
+        this.backendName = backendName;
+        this.endpointWeights = endpointWeights;
+    }
+
+    /**
+     * Registers the MBean. A second service of the same backend name keeps the first one's MBean.
+     */
+    synchronized void register() {
+        try {
+            ObjectName name = new ObjectName(StageMetrics.DOMAIN + ":type=TransformBackend,backend="
+                    + ObjectName.quote(backendName));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            registeredName = name;
+        } catch (JMException e) {
+            log.warn("Unable to register metrics MBean of backend " + backendName + ": " + e.getMessage());
+        }
+    }
+
+    synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            log.debug("Unable to unregister metrics MBean of backend " + backendName, e);
+        }
+        registeredName = null;
+    }
+
+    void onCall(boolean failed, long durationNanos) {
+        calls.increment();
+        if (failed) {
+            failures.increment();
+        }
+        latencyNanos.add(durationNanos);
+    }
+
+    void onRejection() {
+        rejections.increment();
+    }
+
+    @Override
+    public String getBackendName() {
+        return backendName;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    @Override
+    public double getAverageLatencyMillis() {
+        long count = calls.sum();
+        return count > 0 ? latencyNanos.sum() / 1e6 / count : 0;
+    }
+
+    @Override
+    public Map<String, Double> getEndpointWeights() {
+        return endpointWeights.get();
+    }
+}
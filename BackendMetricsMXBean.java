@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import java.util.Map;
+
+/**
+ * Call counters and endpoint weights of one LLM backend, registered under
+ * {@code org.wso2.carbon.apimgt.gateway.mediators:type=TransformBackend}. The counters cover the whole lifetime
+ * of the backend's service, so a scraper can derive rates.
+ */
+public interface BackendMetricsMXBean {
+
+    String getBackendName();
+
+    /**
+     * Number of calls sent upstream that completed, successfully or not.
+     */
+    long getCalls();
+
+    long getFailures();
+
+    /**
+     * Number of calls not sent because of the concurrency limit, the circuit breaker or the rate limit.
+     */
+    long getRejections();
+
+    double getAverageLatencyMillis();
+
+    /**
+     * Share of new calls each of the backend's endpoints currently gets, by URL; ejected endpoints get none.
+     */
+    Map<String, Double> getEndpointWeights();
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker driven by the outcomes of real upstream calls. Failure and slow-call rates are computed over a
+ * count-based sliding window; when either crosses its threshold the breaker opens and calls fail fast until the
+ * open duration has passed, after which a few trial calls decide whether to close it again.
+ */
+final class CircuitBreaker {
+
+    private static final Log log = LogFactory.getLog(CircuitBreaker.class);
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long openDurationNanos;
+    private final int halfOpenPermittedCalls;
+
+    private final byte[] window;
+    private int windowIndex;
+    private int windowCalls;
+    private int windowFailures;
+    private int windowSlowCalls;
+
+    private int halfOpenPermitsIssued;
+    private int halfOpenCalls;
+    private int halfOpenFailures;
+    private int halfOpenSlowCalls;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+
+    CircuitBreaker(String name, TransformConfig config) {
+        this.name = name;
+        this.window = new byte[Math.max(1, config.getCircuitBreakerWindowSize())];
+        this.minimumCalls = Math.min(window.length, Math.max(1, config.getCircuitBreakerMinimumCalls()));
+        this.failureRateThreshold = config.getCircuitBreakerFailureRateThreshold();
+        this.slowCallRateThreshold = config.getCircuitBreakerSlowCallRateThreshold();
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getCircuitBreakerSlowCallDurationMillis());
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getCircuitBreakerOpenDurationMillis());
+        this.halfOpenPermittedCalls = Math.max(1, config.getCircuitBreakerHalfOpenPermittedCalls());
+    }
+
+    State getState() {
+        return state;
+    }
+
+    /**
+     * Tells whether a call would currently be permitted, without taking one of the half-open trial permits.
+     */
+    boolean isCallPermitted() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                return System.nanoTime() - openedAt >= openDurationNanos;
+            }
+            return state == State.CLOSED || halfOpenPermitsIssued < halfOpenPermittedCalls;
+        }
+    }
+
+    /**
+     * Takes a permit for one call. Every permitted call must be followed by {@link #onResult}.
+     */
+    boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openDurationNanos) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermitsIssued >= halfOpenPermittedCalls) {
+                    return false;
+                }
+                halfOpenPermitsIssued++;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the permit of a call that was abandoned before it had an outcome, such as the losing call of a hedge.
+     */
+    synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermitsIssued > halfOpenCalls) {
+            halfOpenPermitsIssued--;
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param failed        Whether the call failed
+     * @param durationNanos How long the call took
+     */
+    synchronized void onResult(boolean failed, long durationNanos) {
+        boolean slow = durationNanos >= slowCallDurationNanos;
+        if (state == State.HALF_OPEN) {
+            halfOpenCalls++;
+            halfOpenFailures += failed ? 1 : 0;
+            halfOpenSlowCalls += slow ? 1 : 0;
+            if (halfOpenCalls >= halfOpenPermittedCalls) {
+                transitionTo(exceedsThresholds(halfOpenCalls, halfOpenFailures, halfOpenSlowCalls)
+                        ? State.OPEN : State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            byte evicted = window[windowIndex];
+            if (windowCalls == window.length) {
+                windowFailures -= evicted & FAILED;
+                windowSlowCalls -= (evicted & SLOW) >> 1;
+            } else {
+                windowCalls++;
+            }
+            window[windowIndex] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+            windowIndex = (windowIndex + 1) % window.length;
+            windowFailures += failed ? 1 : 0;
+            windowSlowCalls += slow ? 1 : 0;
+            if (windowCalls >= minimumCalls && exceedsThresholds(windowCalls, windowFailures, windowSlowCalls)) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    private boolean exceedsThresholds(int calls, int failures, int slowCalls) {
+        return failures * 100 >= failureRateThreshold * calls || slowCalls * 100 >= slowCallRateThreshold * calls;
+    }
+
+    private void transitionTo(State newState) {
+        if (newState == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+        windowIndex = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+        windowSlowCalls = 0;
+        halfOpenPermitsIssued = 0;
+        halfOpenCalls = 0;
+        halfOpenFailures = 0;
+        halfOpenSlowCalls = 0;
+        Arrays.fill(window, (byte) 0);
+        if (state != newState) {
+            log.info("Circuit breaker " + name + " changed state from " + state + " to " + newState);
+        }
+        state = newState;
+    }
+}
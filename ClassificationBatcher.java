@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Micro-batcher for classification calls. Calls submitted within a short window are grouped by scope, such as
+ * the tenant, and system prompt, and each group is sent as one structured-output completion; the answers are then
+ * fanned back out to the callers. When the batched answer cannot be parsed, the calls fall back to one completion
+ * each; when the batch call itself fails, every call in it fails, since retrying them one by one would only
+ * multiply the load on a throttled or failing backend. The flush thread is only started by the first
+ * {@link #submit}.
+ */
+final class ClassificationBatcher {
+
+    private static final class PendingCall {
+
+        private final String systemPrompt;
+        private final String userPrompt;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private PendingCall(String systemPrompt, String userPrompt) {
+            this.systemPrompt = systemPrompt;
+            this.userPrompt = userPrompt;
+        }
+    }
+
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final BiFunction<String, List<String>, CompletableFuture<String>> batchCall;
+    private final BiFunction<String, Integer, List<String>> answerParser;
+    private final BiFunction<String, String, CompletableFuture<String>> singleCall;
+    private ScheduledExecutorService scheduler;
+    private boolean shutdown;
+
+    // Pending calls by scope and system prompt
+    private Map<List<String>, List<PendingCall>> pending = new HashMap<>();
+    private boolean flushScheduled;
+
+    /**
+     * @param windowMillis How long the first call of a batch waits for others
+     * @param maxBatchSize Number of calls that triggers an immediate flush
+     * @param batchCall    Sends several prompts under one system prompt in a single completion; completes with the
+     *                     response, or with {@code null} when the call failed
+     * @param answerParser Reads the given number of answers from a batch response, returning {@code null} when
+     *                     they cannot be used
+     * @param singleCall   Classifies one prompt under a system prompt, which may be {@code null}
+     */
+    ClassificationBatcher(long windowMillis, int maxBatchSize,
+                          BiFunction<String, List<String>, CompletableFuture<String>> batchCall,
+                          BiFunction<String, Integer, List<String>> answerParser,
+                          BiFunction<String, String, CompletableFuture<String>> singleCall) {
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchCall = batchCall;
+        this.answerParser = answerParser;
+        this.singleCall = singleCall;
+    }
+
+    /**
+     * Queues a call for the next batch of its scope and system prompt.
+     *
+     * @param scope Calls of different scopes are never batched together
+     */
+    CompletableFuture<String> submit(String scope, String systemPrompt, String userPrompt) {
+        PendingCall call = new PendingCall(systemPrompt, userPrompt);
+        Map<List<String>, List<PendingCall>> ready = null;
+        synchronized (this) {
+            List<PendingCall> group = pending.computeIfAbsent(Arrays.asList(scope, systemPrompt),
+                    key -> new ArrayList<>());
+            group.add(call);
+            if (group.size() >= maxBatchSize || shutdown) {
+                ready = takePending();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "mistral-classification-batcher");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+                scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return call.result;
+    }
+
+    /**
+     * Classifies a list of prompts in batches of at most the maximum batch size, bypassing the window.
+     */
+    CompletableFuture<List<String>> classifyAll(String systemPrompt, List<String> userPrompts) {
+        List<CompletableFuture<String>> results = new ArrayList<>(userPrompts.size());
+        for (int start = 0; start < userPrompts.size(); start += maxBatchSize) {
+            List<PendingCall> batch = new ArrayList<>();
+            for (String userPrompt : userPrompts.subList(start, Math.min(userPrompts.size(), start + maxBatchSize))) {
+                PendingCall call = new PendingCall(systemPrompt, userPrompt);
+                batch.add(call);
+                results.add(call.result);
+            }
+            send(batch);
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<String> answers = new ArrayList<>(results.size());
+            for (CompletableFuture<String> result : results) {
+                answers.add(result.join());
+            }
+            return answers;
+        });
+    }
+
+    void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+        flush();
+    }
+
+    private void flush() {
+        Map<List<String>, List<PendingCall>> ready;
+        synchronized (this) {
+            ready = takePending();
+        }
+        dispatch(ready);
+    }
+
+    private Map<List<String>, List<PendingCall>> takePending() {
+        Map<List<String>, List<PendingCall>> ready = pending;
+        pending = new HashMap<>();
+        flushScheduled = false;
+        return ready;
+    }
+
+    private void dispatch(Map<List<String>, List<PendingCall>> ready) {
+        for (List<PendingCall> group : ready.values()) {
+            send(group);
+        }
+    }
+
+    /**
+     * Sends calls that share one system prompt.
+     */
+    private void send(List<PendingCall> batch) {
+        String systemPrompt = batch.get(0).systemPrompt;
+        if (batch.size() == 1) {
+            sendIndividually(systemPrompt, batch);
+            return;
+        }
+        List<String> userPrompts = new ArrayList<>(batch.size());
+        for (PendingCall call : batch) {
+            userPrompts.add(call.userPrompt);
+        }
+        CompletableFuture<String> response;
+        try {
+            response = batchCall.apply(systemPrompt, userPrompts);
+        } catch (RuntimeException e) {
+            // Such as the executor rejecting the call while the service closes
+            failAll(batch);
+            return;
+        }
+        response.whenComplete((body, error) -> {
+            if (error != null || body == null) {
+                failAll(batch);
+                return;
+            }
+            List<String> answers;
+            try {
+                answers = answerParser.apply(body, batch.size());
+            } catch (RuntimeException e) {
+                answers = null;
+            }
+            if (answers == null || answers.size() != batch.size()) {
+                sendIndividually(systemPrompt, batch);
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(answers.get(i));
+            }
+        });
+    }
+
+    private void sendIndividually(String systemPrompt, List<PendingCall> batch) {
+        for (PendingCall call : batch) {
+            try {
+                singleCall.apply(systemPrompt, call.userPrompt).whenComplete((answer, error) ->
+                        call.result.complete(error == null ? answer : null));
+            } catch (RuntimeException e) {
+                call.result.complete(null);
+            }
+        }
+    }
+
+    private static void failAll(List<PendingCall> batch) {
+        for (PendingCall call : batch) {
+            call.result.complete(null);
+        }
+    }
+}
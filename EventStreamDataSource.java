@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Read-once data source over a live server-sent-event stream. Wrapped in a binary payload, it lets the transport
+ * sender copy upstream chunks to the client as they arrive instead of materializing the whole response. The
+ * upstream stream is closed once the copy ends for any reason, so a client that disconnects mid-stream also ends
+ * the upstream exchange instead of leaving it to run to completion.
+ */
+final class EventStreamDataSource implements DataSource {
+
+    static final String CONTENT_TYPE = "text/event-stream";
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final InputStream eventStream;
+
+    EventStreamDataSource(InputStream eventStream) {
+        this.eventStream = eventStream;
+    }
+
+    /**
+     * Data handler the transport sender writes the stream to the client through.
+     */
+    DataHandler newDataHandler() {
+        return new DataHandler(this) {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                EventStreamDataSource.this.writeTo(out);
+            }
+        };
+    }
+
+    /**
+     * Copies the events to the client, flushing each chunk as it arrives, and closes the upstream stream.
+     */
+    void writeTo(OutputStream out) throws IOException {
+        try (InputStream in = eventStream) {
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return eventStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        throw new IOException("Event stream data source is read-only");
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public String getName() {
+        return "llm-event-stream";
+    }
+}
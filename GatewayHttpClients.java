@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.ssl.SSLContexts;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Builds upstream HTTP clients with the gateway's transport settings, as {@code APIUtil.getHttpClient} does for
+ * its own clients. Certificates are checked against the JVM default SSL context, which the gateway points at its
+ * client truststore through the {@code javax.net.ssl.*} properties. Host names are verified as the
+ * {@value #HOSTNAME_VERIFIER_PROPERTY} property says, and proxies come from the {@code http(s).proxyHost},
+ * {@code http(s).proxyPort} and {@code http.nonProxyHosts} properties.
+ */
+final class GatewayHttpClients {
+
+    private static final Log log = LogFactory.getLog(GatewayHttpClients.class);
+
+    static final String HOSTNAME_VERIFIER_PROPERTY = "httpclient.hostnameVerifier";
+    private static final String ALLOW_ALL = "AllowAll";
+    private static final String DEFAULT_AND_LOCALHOST = "DefaultAndLocalhost";
+
+    private GatewayHttpClients() {
+    }
+
+    /**
+     * Socket factories for a pooled Apache client.
+     */
+    static Registry<ConnectionSocketFactory> socketFactoryRegistry() {
+        SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(SSLContexts.createSystemDefault(),
+                splitProperty("https.protocols"), splitProperty("https.cipherSuites"), hostnameVerifier());
+        return RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory)
+                .build();
+    }
+
+    /**
+     * Builder of a JDK client using the gateway's truststore and proxies. The JDK client always verifies host
+     * names, so {@code AllowAll} does not apply to it.
+     */
+    static HttpClient.Builder newJdkClientBuilder() {
+        HttpClient.Builder builder = HttpClient.newBuilder().proxy(ProxySelector.getDefault());
+        try {
+            builder.sslContext(SSLContext.getDefault());
+        } catch (NoSuchAlgorithmException e) {
+            log.warn("Default SSL context is not available, using the JDK client's own: " + e.getMessage());
+        }
+        return builder;
+    }
+
+    /**
+     * Shuts a JDK client down on JVMs where it can be closed (21 and later); on older ones it stops once unused.
+     */
+    static void close(HttpClient client) {
+        if (client instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) client).close();
+            } catch (Exception e) {
+                log.debug("Error closing HTTP client", e);
+            }
+        }
+    }
+
+    private static HostnameVerifier hostnameVerifier() {
+        String option = System.getProperty(HOSTNAME_VERIFIER_PROPERTY);
+        if (ALLOW_ALL.equalsIgnoreCase(option)) {
+            return NoopHostnameVerifier.INSTANCE;
+        }
+        DefaultHostnameVerifier verifier = new DefaultHostnameVerifier();
+        if (DEFAULT_AND_LOCALHOST.equalsIgnoreCase(option)) {
+            return (host, session) -> "localhost".equalsIgnoreCase(host) || "127.0.0.1".equals(host)
+                    || "::1".equals(host) || verifier.verify(host, session);
+        }
+        return verifier;
+    }
+
+    private static String[] splitProperty(String name) {
+        String value = System.getProperty(name);
+        return value != null && !value.trim().isEmpty() ? value.trim().split("\\s*,\\s*") : null;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background prober that periodically checks an LLM endpoint with a cheap models listing and publishes the result
+ * as a volatile snapshot, so the request path reads availability without any I/O. Any answer below 500, a 401 or a
+ * 429 included, shows the endpoint is reachable; only errors and server errors count as failures, and the endpoint
+ * is reported down after a configured number of them in a row. After a failure the next probe comes sooner, so an
+ * outage is confirmed, and a recovery noticed, within a few retry delays rather than whole intervals.
+ *
+ * <p>Probes rotate through the backend's API keys, so one throttled or revoked key does not decide for the others.
+ * Probers are shared: every mediator that {@link #acquire acquires} the same endpoint with the same keys gets the
+ * same instance and must {@link #release} it.
+ */
+final class HealthProber {
+
+    private static final Log log = LogFactory.getLog(HealthProber.class);
+
+    private static final Map<List<Object>, HealthProber> probers = new HashMap<>();
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * Immutable result of the latest probe.
+     */
+    static final class Snapshot {
+
+        private final boolean available;
+        private final int statusCode;
+        private final int consecutiveFailures;
+        private final long checkedAtMillis;
+
+        Snapshot(boolean available, int statusCode, int consecutiveFailures, long checkedAtMillis) {
+            this.available = available;
+            this.statusCode = statusCode;
+            this.consecutiveFailures = consecutiveFailures;
+            this.checkedAtMillis = checkedAtMillis;
+        }
+
+        boolean isAvailable() {
+            return available;
+        }
+
+        /**
+         * Status of the latest probe, or 0 when it got no response.
+         */
+        int getStatusCode() {
+            return statusCode;
+        }
+
+        int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        long getCheckedAtMillis() {
+            return checkedAtMillis;
+        }
+    }
+
+    private final List<Object> key;
+    private final String probeUrl;
+    private final List<Map<String, String>> credentials;
+    private final long intervalMillis;
+    private final long retryMillis;
+    private final int failureThreshold;
+    private final double jitter;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    // Assume the endpoint is up until probes say otherwise
+    private volatile Snapshot snapshot = new Snapshot(true, 0, 0, 0);
+    private volatile boolean stopped;
+    private int references;
+    // Probes run one after another, each scheduled from the previous one's completion
+    private int nextCredential;
+
+    HealthProber(String probeUrl, List<Map<String, String>> credentials, TransformConfig config) {
+        this.key = Arrays.asList(probeUrl, credentials);
+        this.probeUrl = probeUrl;
+        this.credentials = credentials;
+        this.intervalMillis = Math.max(1000, config.getHealthProbeIntervalMillis());
+        this.retryMillis = Math.max(1, Math.min(intervalMillis, config.getHealthProbeRetryMillis()));
+        this.failureThreshold = Math.max(1, config.getHealthProbeFailureThreshold());
+        this.jitter = Math.min(1.0, Math.max(0.0, config.getHealthProbeJitter()));
+        this.timeout = Duration.ofMillis(config.getHealthProbeTimeoutMillis());
+        this.httpClient = GatewayHttpClients.newJdkClientBuilder().connectTimeout(timeout).build();
+    }
+
+    /**
+     * Returns the prober of the given endpoint and keys, starting it if no other mediator uses it yet.
+     *
+     * @param probeUrl    URL answering a cheap GET, such as the models listing
+     * @param credentials Header sets of the backend's API keys, used in turn
+     * @param config      Transform configuration holding the probe interval, jitter, timeout and thresholds
+     * @return The shared prober of the endpoint
+     */
+    static synchronized HealthProber acquire(String probeUrl, List<Map<String, String>> credentials,
+                                             TransformConfig config) {
+        HealthProber prober = probers.get(Arrays.asList(probeUrl, credentials));
+        if (prober == null) {
+            if (scheduler == null) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "llm-health-prober");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            prober = new HealthProber(probeUrl, credentials, config);
+            probers.put(prober.key, prober);
+            prober.scheduleNextProbe(0);
+        }
+        prober.references++;
+        return prober;
+    }
+
+    /**
+     * Releases a prober obtained from {@link #acquire}; the last release stops it.
+     */
+    static synchronized void release(HealthProber prober) {
+        if (--prober.references > 0) {
+            return;
+        }
+        prober.stopped = true;
+        probers.remove(prober.key);
+        GatewayHttpClients.close(prober.httpClient);
+        if (probers.isEmpty() && scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    boolean isAvailable() {
+        return snapshot.isAvailable();
+    }
+
+    Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void scheduleNextProbe(long delayMillis) {
+        synchronized (HealthProber.class) {
+            if (!stopped && scheduler != null) {
+                scheduler.schedule(this::probe, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private long nextDelayMillis() {
+        double factor = 1.0 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        return (long) (intervalMillis * factor);
+    }
+
+    private void probe() {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(probeUrl))
+                    .timeout(timeout)
+                    .GET();
+            if (!credentials.isEmpty()) {
+                credentials.get(nextCredential++ % credentials.size()).forEach(builder::header);
+            }
+            HttpRequest request = builder.build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        boolean reachable = onProbeResult(error == null ? response.statusCode() : 0, error);
+                        scheduleNextProbe(reachable ? nextDelayMillis() : retryMillis);
+                    });
+        } catch (RuntimeException e) {
+            // A malformed URL or a rejected send counts as a failed probe and must not end the probe loop
+            onProbeResult(0, e);
+            scheduleNextProbe(retryMillis);
+        }
+    }
+
+    /**
+     * Publishes the outcome of a probe.
+     *
+     * @param statusCode Status of the response, or 0 when there was none
+     * @return Whether the endpoint answered
+     */
+    boolean onProbeResult(int statusCode, Throwable error) {
+        boolean reachable = statusCode > 0 && statusCode < 500;
+        Snapshot previous = snapshot;
+        int failures = reachable ? 0 : previous.getConsecutiveFailures() + 1;
+        boolean available = reachable || (previous.isAvailable() && failures < failureThreshold);
+        if (available != previous.isAvailable()) {
+            log.info("LLM endpoint " + probeUrl + " is now " + (available ? "available" : "unavailable after "
+                    + failures + " failed probes") + (error != null ? ": " + error.getMessage() : ""));
+        }
+        snapshot = new Snapshot(available, statusCode, failures, System.currentTimeMillis());
+        return reachable;
+    }
+}
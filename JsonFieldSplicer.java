@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Byte-level scanner for the top-level fields of a UTF-8 JSON object. A lookup walks only as far as the wanted
+ * field, skipping nested values without building any tree. A splice checks every top-level key first, then puts the
+ * new value in as a sequence of views over the original bytes, so the rest of the payload is neither parsed nor
+ * copied.
+ */
+final class JsonFieldSplicer {
+
+    private static final byte[] COMMA = {','};
+
+    private JsonFieldSplicer() {
+    }
+
+    /**
+     * Finds the value of a top-level field.
+     *
+     * @param json   UTF-8 JSON bytes
+     * @param length Number of valid bytes in {@code json}
+     * @param key    Field name, matched against the raw (unescaped) key bytes
+     * @return {@code {start, end}} of the value, {@code {-1, -1}} when the field is absent,
+     *         or {@code null} when the bytes are not a well-formed JSON object
+     */
+    static int[] findTopLevelValue(byte[] json, int length, String key) {
+        return scan(json, length, key, false);
+    }
+
+    /**
+     * Like {@link #findTopLevelValue}, but reads the whole object and gives up when the field could be read
+     * differently by a JSON parser: when the key appears more than once, since parsers keep the last copy, or when
+     * any key holds an escape sequence, since it could spell the same name.
+     *
+     * @return {@code {start, end}} of the value, {@code {-1, -1}} when the field is absent, or {@code null} when
+     *         the bytes are not a well-formed JSON object or the field is ambiguous
+     */
+    static int[] findUniqueTopLevelValue(byte[] json, int length, String key) {
+        return scan(json, length, key, true);
+    }
+
+    private static int[] scan(byte[] json, int length, String key, boolean unique) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int i = skipWhitespace(json, 0, length);
+        if (i >= length || json[i] != '{') {
+            return null;
+        }
+        i = skipWhitespace(json, i + 1, length);
+        if (i < length && json[i] == '}') {
+            return new int[]{-1, -1};
+        }
+        int[] found = null;
+        while (i < length && json[i] == '"') {
+            int keyEnd = skipString(json, i, length);
+            if (keyEnd < 0 || (unique && indexOf(json, (byte) '\\', i + 1, keyEnd - 1) >= 0)) {
+                return null;
+            }
+            boolean match = keyEnd - i - 2 == keyBytes.length
+                    && Arrays.equals(json, i + 1, keyEnd - 1, keyBytes, 0, keyBytes.length);
+            i = skipWhitespace(json, keyEnd, length);
+            if (i >= length || json[i] != ':') {
+                return null;
+            }
+            int valueStart = skipWhitespace(json, i + 1, length);
+            int valueEnd = skipValue(json, valueStart, length);
+            if (valueEnd < 0) {
+                return null;
+            }
+            if (match) {
+                if (!unique) {
+                    return new int[]{valueStart, valueEnd};
+                }
+                if (found != null) {
+                    return null;
+                }
+                found = new int[]{valueStart, valueEnd};
+            }
+            i = skipWhitespace(json, valueEnd, length);
+            if (i < length && json[i] == '}') {
+                return found != null ? found : new int[]{-1, -1};
+            }
+            if (i >= length || json[i] != ',') {
+                return null;
+            }
+            i = skipWhitespace(json, i + 1, length);
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the value of a top-level field, or inserts the field first in the object when it is absent.
+     *
+     * @param json         UTF-8 JSON bytes of an object
+     * @param key          Field name
+     * @param encodedValue New value, already encoded as JSON
+     * @return The rewritten payload as a stream over the original bytes, or {@code null} when the bytes are not a
+     *         well-formed JSON object or the field is ambiguous, as described at {@link #findUniqueTopLevelValue}
+     */
+    static InputStream replaceTopLevelValue(byte[] json, String key, byte[] encodedValue) {
+        int[] span = findUniqueTopLevelValue(json, json.length, key);
+        if (span == null) {
+            return null;
+        }
+        if (span[0] >= 0) {
+            return concat(slice(json, 0, span[0]), new ByteArrayInputStream(encodedValue),
+                    slice(json, span[1], json.length));
+        }
+        int objectStart = skipWhitespace(json, 0, json.length) + 1;
+        boolean empty = json[skipWhitespace(json, objectStart, json.length)] == '}';
+        byte[] field = ("\"" + key + "\":").getBytes(StandardCharsets.UTF_8);
+        return concat(slice(json, 0, objectStart), new ByteArrayInputStream(field),
+                new ByteArrayInputStream(encodedValue), new ByteArrayInputStream(empty ? new byte[0] : COMMA),
+                slice(json, objectStart, json.length));
+    }
+
+    private static InputStream slice(byte[] json, int from, int to) {
+        return new ByteArrayInputStream(json, from, to - from);
+    }
+
+    private static InputStream concat(InputStream... parts) {
+        return new SequenceInputStream(Collections.enumeration(Arrays.asList(parts)));
+    }
+
+    private static int indexOf(byte[] json, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (json[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(byte[] json, int i, int length) {
+        while (i < length && (json[i] == ' ' || json[i] == '\n' || json[i] == '\r' || json[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the index just past the string starting at {@code i}, or -1 when it is unterminated.
+     */
+    private static int skipString(byte[] json, int i, int length) {
+        for (i++; i < length; i++) {
+            if (json[i] == '\\') {
+                i++;
+            } else if (json[i] == '"') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index just past the value starting at {@code i}, or -1 when it is malformed.
+     */
+    private static int skipValue(byte[] json, int i, int length) {
+        if (i >= length) {
+            return -1;
+        }
+        byte first = json[i];
+        if (first == '"') {
+            return skipString(json, i, length);
+        }
+        if (first == '{' || first == '[') {
+            int depth = 0;
+            while (i < length) {
+                byte b = json[i];
+                if (b == '"') {
+                    i = skipString(json, i, length);
+                    if (i < 0) {
+                        return -1;
+                    }
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if ((b == '}' || b == ']') && --depth == 0) {
+                    return i + 1;
+                }
+                i++;
+            }
+            return -1;
+        }
+        int start = i;
+        while (i < length && json[i] != ',' && json[i] != '}' && json[i] != ']' && json[i] != ' '
+                && json[i] != '\n' && json[i] != '\r' && json[i] != '\t') {
+            i++;
+        }
+        return i > start ? i : -1;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets in the style of HdrHistogram: every power of two is split
+ * into 32 buckets, so a percentile is accurate to within 2% from a microsecond up to an hour. Recording is one
+ * atomic increment. Percentiles describe the last complete interval, so they follow the current behaviour rather
+ * than everything since startup; the count and total cover the whole lifetime.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    // Values up to 2^32 microseconds, a little over an hour; longer ones land in the last bucket
+    private static final int MAX_SHIFT = 32 - SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + MAX_SHIFT * HALF_SUB_BUCKETS;
+
+    private final long intervalNanos;
+    private final AtomicLong intervalStartNanos = new AtomicLong(System.nanoTime());
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private volatile AtomicLongArray current = new AtomicLongArray(BUCKETS);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BUCKETS);
+
+    LatencyHistogram(long intervalMillis) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param durationNanos Measured duration
+     * @param now           {@link System#nanoTime()} at the end of the measurement
+     */
+    void record(long durationNanos, long now) {
+        rotateIfDue(now);
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, durationNanos));
+        current.incrementAndGet(bucketOf(micros));
+        count.increment();
+        totalMicros.add(micros);
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    double getTotalMillis() {
+        return totalMicros.sum() / 1e3;
+    }
+
+    long getIntervalCount() {
+        AtomicLongArray buckets = completedInterval();
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += buckets.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the given percentile of the last complete interval in milliseconds, or 0 when it had no samples.
+     */
+    double getPercentileMillis(double percentile) {
+        AtomicLongArray buckets = completedInterval();
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return representativeMicros(i) / 1e3;
+            }
+        }
+        return representativeMicros(BUCKETS - 1) / 1e3;
+    }
+
+    double getMaxMillis() {
+        AtomicLongArray buckets = completedInterval();
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (buckets.get(i) > 0) {
+                return representativeMicros(i) / 1e3;
+            }
+        }
+        return 0;
+    }
+
+    private AtomicLongArray completedInterval() {
+        rotateIfDue(System.nanoTime());
+        return previous;
+    }
+
+    private void rotateIfDue(long now) {
+        long start = intervalStartNanos.get();
+        if (now - start >= intervalNanos && intervalStartNanos.compareAndSet(start, now)) {
+            // After an idle interval there is nothing recent to report
+            previous = now - start >= 2 * intervalNanos ? new AtomicLongArray(BUCKETS) : current;
+            current = new AtomicLongArray(BUCKETS);
+        }
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - (SUB_BUCKET_BITS - 1);
+        if (shift > MAX_SHIFT) {
+            return BUCKETS - 1;
+        }
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) (micros >>> shift) - HALF_SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the middle of a bucket's value range.
+     */
+    static long representativeMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long lowest = (long) ((bucket - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) / 2;
+    }
+}
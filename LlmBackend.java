@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonObject;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A chat-completion provider the TransformMediator can route to: where it is, how to authenticate, how to build
+ * its request payload and how to read its answer. Backends are configured in the {@code backends} list of
+ * {@code transformConfigs}; the {@code type} of an entry is {@code mistral}, {@code openai-compatible} or the
+ * class name of a custom implementation with a public constructor taking a {@link TransformConfig.BackendConfig}.
+ */
+public interface LlmBackend {
+
+    /**
+     * Unique name of the backend, used to route APIs to it.
+     */
+    String getName();
+
+    /**
+     * Model the backend is called with, replacing the model of the client request.
+     */
+    String getModel();
+
+    String getCompletionsUrl();
+
+    /**
+     * Every endpoint serving the backend's model, such as several regions or local replicas; calls are balanced
+     * across them. Defaults to the single {@link #getCompletionsUrl() completions URL}.
+     */
+    default List<String> getCompletionsUrls() {
+        return Collections.singletonList(getCompletionsUrl());
+    }
+
+    /**
+     * URL answering a cheap authenticated GET, used to probe availability, or {@code null} when there is none.
+     */
+    String getHealthCheckUrl();
+
+    /**
+     * Headers that authenticate a request, such as {@code Authorization}.
+     */
+    Map<String, String> getAuthHeaders();
+
+    /**
+     * Auth headers of every API key the backend may be called with, one set per key; calls are spread across the
+     * keys by their remaining quota. Defaults to the single set of {@link #getAuthHeaders()}.
+     */
+    default List<Map<String, String>> getCredentials() {
+        return Collections.singletonList(getAuthHeaders());
+    }
+
+    /**
+     * Builds the body of a completion request.
+     *
+     * @param temperature Sampling temperature, or {@code null} for the backend default
+     * @param maxTokens   Completion length limit, or {@code null} for the backend default
+     * @param stream      Whether the answer should be streamed as server-sent events
+     * @param jsonOutput  Whether the answer must be a JSON object
+     * @param messages    Chat messages, each with a {@code role} and {@code content}
+     */
+    JsonObject buildRequestBody(Double temperature, Integer maxTokens, boolean stream, boolean jsonOutput,
+                                JsonObject... messages);
+
+    /**
+     * Extracts the answer text from a completion response, or returns {@code null} when it has none.
+     */
+    String parseContent(String responseBody);
+
+    /**
+     * Creates the backend described by a configuration entry.
+     */
+    static LlmBackend create(TransformConfig.BackendConfig config) {
+        String type = config.getType();
+        if (type == null || "mistral".equals(type)) {
+            return new MistralBackend(config);
+        }
+        if ("openai-compatible".equals(type)) {
+            return new OpenAiCompatibleBackend(config);
+        }
+        try {
+            return (LlmBackend) Class.forName(type).getConstructor(TransformConfig.BackendConfig.class)
+                    .newInstance(config);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Unknown LLM backend type " + type + " for backend "
+                    + config.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency-aware balancer over the endpoints of one backend. Each call goes to the cheaper of two randomly picked
+ * endpoints, where the cost is a peak-sensitive EWMA of response latency multiplied by the calls in flight.
+ * An endpoint whose error rate over its last {@code outlierMinimumCalls} calls reaches the threshold is ejected as
+ * an outlier for a while; with the defaults, three failures in five calls. There is no lock shared between
+ * endpoints, so picking stays cheap with dozens of them.
+ */
+final class LoadBalancer {
+
+    private static final Log log = LogFactory.getLog(LoadBalancer.class);
+
+    private static final int MAX_EJECTION_MULTIPLIER = 8;
+    private static final long NOT_EJECTED = Long.MIN_VALUE;
+
+    /**
+     * One upstream endpoint and its recent behaviour.
+     */
+    static final class Endpoint {
+
+        private final String url;
+        private final URI uri;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        // Written under the endpoint's own lock, read without it
+        private volatile double latencyEwmaNanos;
+        private volatile long lastSampleNanos = System.nanoTime();
+        private volatile long ejectedUntilNanos = NOT_EJECTED;
+        // Outcomes of the last calls, true for a failure, as a ring
+        private final boolean[] outcomes;
+        private int next;
+        private int samples;
+        private int failures;
+        private int ejections;
+
+        private Endpoint(String url, int window) {
+            this.url = url;
+            this.uri = URI.create(url);
+            this.outcomes = new boolean[window];
+        }
+
+        String getUrl() {
+            return url;
+        }
+
+        URI getUri() {
+            return uri;
+        }
+
+        private boolean isEjected(long now) {
+            long until = ejectedUntilNanos;
+            return until != NOT_EJECTED && now - until < 0;
+        }
+
+        private void addOutcome(boolean failed) {
+            if (samples == outcomes.length) {
+                failures -= outcomes[next] ? 1 : 0;
+            } else {
+                samples++;
+            }
+            outcomes[next] = failed;
+            failures += failed ? 1 : 0;
+            next = (next + 1) % outcomes.length;
+        }
+
+        private void clearOutcomes() {
+            Arrays.fill(outcomes, false);
+            next = 0;
+            samples = 0;
+            failures = 0;
+        }
+    }
+
+    private final Endpoint[] endpoints;
+    private final double decayNanos;
+    private final int ejectionFailures;
+    private final long ejectionNanos;
+    private final int maxEjected;
+
+    LoadBalancer(List<String> urls, TransformConfig config) {
+        int window = Math.max(1, config.getOutlierMinimumCalls());
+        this.endpoints = new Endpoint[urls.size()];
+        for (int i = 0; i < endpoints.length; i++) {
+            endpoints[i] = new Endpoint(urls.get(i), window);
+        }
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getLoadBalancerDecayMillis()));
+        // Failures in a full window that reach the threshold, and at least one
+        this.ejectionFailures = Math.max(1, (int) Math.ceil(window
+                * Math.min(100, Math.max(0, config.getOutlierFailureRateThreshold())) / 100.0));
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(config.getOutlierEjectionMillis());
+        this.maxEjected = endpoints.length * Math.min(100, Math.max(0, config.getOutlierMaxEjectionPercent())) / 100;
+    }
+
+    /**
+     * Picks the endpoint for a call and counts the call as in flight there. Every pick must be followed by
+     * {@link #onComplete} or {@link #onAbandoned}.
+     */
+    Endpoint choose() {
+        Endpoint chosen;
+        if (endpoints.length == 1) {
+            chosen = endpoints[0];
+        } else {
+            long now = System.nanoTime();
+            Endpoint first = pick(now, null);
+            Endpoint second = pick(now, first);
+            chosen = cost(first, now) <= cost(second, now) ? first : second;
+        }
+        chosen.outstanding.incrementAndGet();
+        return chosen;
+    }
+
+    /**
+     * Records the outcome of a call.
+     *
+     * @param endpoint      Endpoint returned by {@link #choose()}
+     * @param latencyNanos  Time until the response headers arrived, or until the call failed
+     * @param failed        Whether the endpoint failed to serve the call
+     */
+    void onComplete(Endpoint endpoint, long latencyNanos, boolean failed) {
+        endpoint.outstanding.decrementAndGet();
+        if (endpoints.length == 1) {
+            return;
+        }
+        long now = System.nanoTime();
+        boolean ejected = false;
+        synchronized (endpoint) {
+            double ewma = endpoint.latencyEwmaNanos;
+            double weight = Math.exp(-(now - endpoint.lastSampleNanos) / decayNanos);
+            // Jump straight to a latency spike, but forget it gradually
+            endpoint.latencyEwmaNanos = latencyNanos > ewma ? latencyNanos
+                    : ewma * weight + latencyNanos * (1 - weight);
+            endpoint.lastSampleNanos = now;
+            endpoint.addOutcome(failed);
+            boolean windowFull = endpoint.samples == endpoint.outcomes.length;
+            if (failed && !endpoint.isEjected(now) && windowFull && endpoint.failures >= ejectionFailures
+                    && countEjected(now) < maxEjected) {
+                endpoint.ejections = Math.min(MAX_EJECTION_MULTIPLIER, endpoint.ejections + 1);
+                endpoint.ejectedUntilNanos = now + ejectionNanos * endpoint.ejections;
+                // Give the endpoint a clean slate when it comes back
+                endpoint.clearOutcomes();
+                ejected = true;
+            } else if (!failed && windowFull && endpoint.failures * 2 < ejectionFailures) {
+                endpoint.ejections = 0;
+            }
+        }
+        if (ejected) {
+            log.warn("Ejecting LLM endpoint " + endpoint.url + " for "
+                    + TimeUnit.NANOSECONDS.toMillis(endpoint.ejectedUntilNanos - now) + " ms after repeated failures");
+        }
+    }
+
+    /**
+     * Releases a call that was cancelled before it had an outcome.
+     */
+    void onAbandoned(Endpoint endpoint) {
+        endpoint.outstanding.decrementAndGet();
+    }
+
+    /**
+     * Returns the current share of new calls each endpoint would get, by URL; ejected endpoints get none.
+     */
+    Map<String, Double> getWeights() {
+        long now = System.nanoTime();
+        Map<String, Double> weights = new LinkedHashMap<>();
+        double total = 0;
+        for (Endpoint endpoint : endpoints) {
+            double weight = endpoint.isEjected(now) ? 0 : 1 / (1 + cost(endpoint, now));
+            weights.put(endpoint.url, weight);
+            total += weight;
+        }
+        if (total > 0) {
+            for (Map.Entry<String, Double> weight : weights.entrySet()) {
+                weight.setValue(weight.getValue() / total);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Picks an endpoint other than the excluded one, uniformly among those not ejected, or among all of them when
+     * every one is ejected.
+     */
+    private Endpoint pick(long now, Endpoint excluded) {
+        int others = 0;
+        int available = 0;
+        for (Endpoint candidate : endpoints) {
+            if (candidate != excluded) {
+                others++;
+                available += candidate.isEjected(now) ? 0 : 1;
+            }
+        }
+        boolean availableOnly = available > 0;
+        int index = ThreadLocalRandom.current().nextInt(availableOnly ? available : others);
+        Endpoint fallback = null;
+        for (Endpoint candidate : endpoints) {
+            if (candidate == excluded) {
+                continue;
+            }
+            if (fallback == null) {
+                fallback = candidate;
+            }
+            if ((!availableOnly || !candidate.isEjected(now)) && index-- == 0) {
+                return candidate;
+            }
+        }
+        // Only reached when an ejection happened between the two scans
+        return fallback;
+    }
+
+    private double cost(Endpoint endpoint, long now) {
+        return decayedLatency(endpoint, now) * (endpoint.outstanding.get() + 1);
+    }
+
+    /**
+     * Lets the latency of an endpoint that has not been used for a while decay, so it is tried again.
+     */
+    private double decayedLatency(Endpoint endpoint, long now) {
+        return endpoint.latencyEwmaNanos * Math.exp(-(now - endpoint.lastSampleNanos) / decayNanos);
+    }
+
+    private int countEjected(long now) {
+        int ejected = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isEjected(now)) {
+                ejected++;
+            }
+        }
+        return ejected;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+/**
+ * Mistral's hosted chat-completions API. Every setting defaults to the La Plateforme endpoint and model, so an
+ * empty configuration entry is enough.
+ */
+public class MistralBackend extends OpenAiCompatibleBackend {
+
+    static final String NAME = "mistral";
+
+    private static final String MISTRAL_API_URL = "https://api.mistral.ai/v1/chat/completions";
+    private static final String MISTRAL_API_KEY = "#";
+    private static final String MISTRAL_MODEL = "mistral-large-latest";
+
+    public MistralBackend(TransformConfig.BackendConfig config) {
+        super(config.getName() != null ? config : config.withName(NAME), MISTRAL_API_URL, MISTRAL_API_KEY,
+                MISTRAL_MODEL);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backend speaking the OpenAI chat-completions contract, as served by OpenAI itself and by self-hosted servers
+ * such as vLLM or llama.cpp. The API key is optional, since local servers often run without one, and several
+ * keys can be pooled to go beyond the quota of a single key.
+ */
+public class OpenAiCompatibleBackend implements LlmBackend {
+
+    private static final Log log = LogFactory.getLog(OpenAiCompatibleBackend.class);
+
+    private static final String COMPLETIONS_PATH = "/chat/completions";
+
+    private final String name;
+    private final String model;
+    private final String completionsUrl;
+    private final List<String> completionsUrls;
+    private final String healthCheckUrl;
+    private final List<Map<String, String>> credentials;
+
+    public OpenAiCompatibleBackend(TransformConfig.BackendConfig config) {
+        this(config, null, null, null);
+    }
+
+    /**
+     * @param defaultUrl    Completions URL used when the configuration has none
+     * @param defaultApiKey API key used when the configuration has none
+     * @param defaultModel  Model used when the configuration has none
+     */
+    protected OpenAiCompatibleBackend(TransformConfig.BackendConfig config, String defaultUrl, String defaultApiKey,
+                                      String defaultModel) {
+        this.name = config.getName();
+        this.model = config.getModel() != null ? config.getModel() : defaultModel;
+        List<String> urls = config.getUrls();
+        this.completionsUrl = config.getUrl() != null ? config.getUrl()
+                : !urls.isEmpty() ? urls.get(0) : defaultUrl;
+        this.completionsUrls = !urls.isEmpty() ? urls : Collections.singletonList(completionsUrl);
+        if (name == null || model == null || completionsUrl == null) {
+            throw new IllegalArgumentException("LLM backend needs a name, a model and a URL");
+        }
+        this.healthCheckUrl = config.getHealthCheckUrl() != null ? config.getHealthCheckUrl()
+                : deriveModelsUrl(completionsUrl);
+        String apiKey = config.getApiKey() != null ? config.getApiKey() : defaultApiKey;
+        List<String> apiKeys = !config.getApiKeys().isEmpty() ? config.getApiKeys()
+                : Collections.singletonList(apiKey);
+        List<Map<String, String>> keyHeaders = new ArrayList<>(apiKeys.size());
+        for (String key : apiKeys) {
+            keyHeaders.add(key != null && !key.isEmpty()
+                    ? Collections.singletonMap("Authorization", "Bearer " + key) : Collections.emptyMap());
+        }
+        this.credentials = Collections.unmodifiableList(keyHeaders);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    @Override
+    public String getCompletionsUrl() {
+        return completionsUrl;
+    }
+
+    @Override
+    public List<String> getCompletionsUrls() {
+        return completionsUrls;
+    }
+
+    @Override
+    public String getHealthCheckUrl() {
+        return healthCheckUrl;
+    }
+
+    @Override
+    public Map<String, String> getAuthHeaders() {
+        return credentials.get(0);
+    }
+
+    @Override
+    public List<Map<String, String>> getCredentials() {
+        return credentials;
+    }
+
+    @Override
+    public JsonObject buildRequestBody(Double temperature, Integer maxTokens, boolean stream, boolean jsonOutput,
+                                       JsonObject... messages) {
+        JsonObject requestBody = new JsonObject();
+        requestBody.addProperty("model", model);
+        if (temperature != null) requestBody.addProperty("temperature", temperature);
+        if (maxTokens != null) requestBody.addProperty("max_tokens", maxTokens);
+        JsonArray messageArray = new JsonArray(messages.length);
+        for (JsonObject message : messages) {
+            messageArray.add(message);
+        }
+        requestBody.add("messages", messageArray);
+        if (stream) {
+            requestBody.addProperty("stream", true);
+        }
+        if (jsonOutput) {
+            JsonObject responseFormat = new JsonObject();
+            responseFormat.addProperty("type", "json_object");
+            requestBody.add("response_format", responseFormat);
+        }
+        return requestBody;
+    }
+
+    @Override
+    public String parseContent(String responseBody) {
+        try {
+            JsonObject jsonResponse = JsonParser.parseString(responseBody).getAsJsonObject();
+            if (jsonResponse.has("choices") && jsonResponse.getAsJsonArray("choices").size() > 0) {
+                JsonObject choice = jsonResponse.getAsJsonArray("choices").get(0).getAsJsonObject();
+                if (choice.has("message")) {
+                    JsonObject messageObj = choice.getAsJsonObject("message");
+                    if (messageObj.has("content")) {
+                        return messageObj.get("content").getAsString().trim();
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Error parsing " + name + " response");
+        }
+        return null;
+    }
+
+    /**
+     * Derives the models listing from a completions URL such as {@code https://host/v1/chat/completions}.
+     */
+    private static String deriveModelsUrl(String completionsUrl) {
+        return completionsUrl.endsWith(COMPLETIONS_PATH)
+                ? completionsUrl.substring(0, completionsUrl.length() - COMPLETIONS_PATH.length()) + "/models"
+                : null;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of identical upstream calls. The first caller for a key becomes the leader and makes
+ * the call; callers arriving while it is in flight wait for the leader's result, {@code null} or error included,
+ * instead of calling again, so an outage costs one upstream call rather than one per caller. Only followers beyond
+ * the per-key limit and followers whose wait times out make their own call, so a slow leader cannot stall them.
+ */
+final class RequestCoalescer<T> {
+
+    private static final Log log = LogFactory.getLog(RequestCoalescer.class);
+
+    private static final class Flight<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+
+    private final ConcurrentHashMap<String, Flight<T>> flights = new ConcurrentHashMap<>();
+    private final int maxWaiters;
+    private final long waitTimeoutMillis;
+
+    RequestCoalescer(int maxWaiters, long waitTimeoutMillis) {
+        this.maxWaiters = maxWaiters;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    /**
+     * Runs a blocking call, or waits at most the given time for the identical call already in flight.
+     */
+    T execute(String key, Callable<T> call, long maxWaitMillis) throws Exception {
+        Flight<T> flight = new Flight<>();
+        Flight<T> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight == null) {
+            try {
+                T result = call.call();
+                flight.result.complete(result);
+                return result;
+            } catch (Exception e) {
+                flight.result.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(key, flight);
+            }
+        }
+        if (!join(inFlight)) {
+            return call.call();
+        }
+        T shared;
+        try {
+            shared = inFlight.result.get(Math.min(waitTimeoutMillis, maxWaitMillis), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logWaitTimeout();
+            return call.call();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            inFlight.waiters.decrementAndGet();
+        }
+        return shared;
+    }
+
+    /**
+     * Starts an async call, or attaches for at most the given time to the identical call already in flight.
+     */
+    CompletableFuture<T> executeAsync(String key, Supplier<CompletableFuture<T>> call, long maxWaitMillis) {
+        Flight<T> flight = new Flight<>();
+        Flight<T> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight == null) {
+            CompletableFuture<T> started;
+            try {
+                started = call.get();
+            } catch (RuntimeException e) {
+                flights.remove(key, flight);
+                flight.result.completeExceptionally(e);
+                throw e;
+            }
+            started.whenComplete((result, error) -> {
+                flights.remove(key, flight);
+                if (error != null) {
+                    flight.result.completeExceptionally(error);
+                } else {
+                    flight.result.complete(result);
+                }
+            });
+            return flight.result.copy();
+        }
+        if (!join(inFlight)) {
+            return call.get();
+        }
+        return inFlight.result.copy()
+                .orTimeout(Math.min(waitTimeoutMillis, maxWaitMillis), TimeUnit.MILLISECONDS)
+                .handle((result, error) -> {
+                    inFlight.waiters.decrementAndGet();
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        logWaitTimeout();
+                        return call.get();
+                    }
+                    return cause != null ? CompletableFuture.<T>failedFuture(cause)
+                            : CompletableFuture.completedFuture(result);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private boolean join(Flight<T> flight) {
+        if (flight.waiters.incrementAndGet() > maxWaiters) {
+            flight.waiters.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void logWaitTimeout() {
+        if (log.isDebugEnabled()) {
+            log.debug("Timed out waiting for a coalesced upstream call, calling upstream directly");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which the client expects an answer. Every stage of a request sizes its own timeouts from the
+ * remaining budget and skips its work once the deadline has passed, so nothing keeps waiting on an upstream
+ * answer the client has already abandoned.
+ */
+public final class RequestDeadline {
+
+    /**
+     * Message context property holding the deadline of the request being mediated.
+     */
+    public static final String PROPERTY = "TRANSFORM_REQUEST_DEADLINE";
+
+    /**
+     * A deadline that never passes, for callers without a time budget.
+     */
+    public static final RequestDeadline NONE = new RequestDeadline(0, false);
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+
+    private RequestDeadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * Creates a deadline the given time from now, or {@link #NONE} when the time is not positive.
+     */
+    public static RequestDeadline after(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            return NONE;
+        }
+        return new RequestDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis), true);
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Returns the time left in milliseconds, {@code 0} once the deadline has passed, or {@link Long#MAX_VALUE}
+     * for {@link #NONE}.
+     */
+    public long remainingMillis() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Caps a timeout at the time left, so that a stage never waits past the deadline.
+     */
+    public long capMillis(long timeoutMillis) {
+        return Math.min(timeoutMillis, remainingMillis());
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hedges async upstream calls against tail latency. When a call has not received response headers within a
+ * percentile of recently observed header latencies, a duplicate call is sent; the first successful response wins
+ * and the other call is cancelled. Hedges are paid for from a budget that grows by a fixed fraction of every
+ * primary call, so hedging can add at most that fraction of extra load and cannot amplify an overload.
+ */
+final class RequestHedger {
+
+    private static final int SAMPLE_COUNT = 256;
+    private static final int MIN_SAMPLES = 32;
+    private static final int RECOMPUTE_INTERVAL = 32;
+    // Lets a short burst of slow calls be hedged after a quiet period, without exceeding the long-run budget
+    private static final double MAX_BUDGET_TOKENS = 10;
+
+    /**
+     * One upstream call as seen by the hedger.
+     */
+    static final class Attempt<T> {
+
+        private final CompletableFuture<Void> headersReceived;
+        private final CompletableFuture<T> result;
+        private final Runnable cancel;
+
+        /**
+         * @param headersReceived Completes when the response headers arrive
+         * @param result          Completes with the response, or {@code null} when the call did not succeed
+         * @param cancel          Aborts the call
+         */
+        Attempt(CompletableFuture<Void> headersReceived, CompletableFuture<T> result, Runnable cancel) {
+            this.headersReceived = headersReceived;
+            this.result = result;
+            this.cancel = cancel;
+        }
+
+        CompletableFuture<T> getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * The primary call and its hedge, racing for the first successful response.
+     */
+    private static final class Race<T> {
+
+        private final CompletableFuture<T> winner = new CompletableFuture<>();
+        private final List<Attempt<T>> attempts = new ArrayList<>(2);
+        private int pending;
+
+        private boolean add(Attempt<T> attempt) {
+            synchronized (this) {
+                // Once every call has finished the outcome is decided and no hedge may join
+                if (!attempts.isEmpty() && pending == 0) {
+                    return false;
+                }
+                attempts.add(attempt);
+                pending++;
+            }
+            attempt.result.whenComplete((value, error) -> onComplete(error == null ? value : null));
+            return true;
+        }
+
+        private boolean isOpen() {
+            return !winner.isDone();
+        }
+
+        private void onComplete(T value) {
+            boolean lastPending;
+            synchronized (this) {
+                lastPending = --pending == 0;
+            }
+            if (value != null ? winner.complete(value) : lastPending && winner.complete(null)) {
+                cancelUnfinished();
+            }
+        }
+
+        private void cancelUnfinished() {
+            List<Attempt<T>> started;
+            synchronized (this) {
+                started = new ArrayList<>(attempts);
+            }
+            for (Attempt<T> attempt : started) {
+                if (!attempt.result.isDone()) {
+                    attempt.cancel.run();
+                }
+            }
+        }
+    }
+
+    private final double percentile;
+    private final double budgetRatio;
+    private final long minDelayNanos;
+
+    private final long[] samples = new long[SAMPLE_COUNT];
+    private int sampleIndex;
+    private int sampleCount;
+    private int samplesSinceRecompute;
+    private volatile long hedgeDelayNanos = -1;
+    private double budgetTokens;
+
+    RequestHedger(TransformConfig config) {
+        this.percentile = Math.min(99.9, Math.max(50, config.getHedgingPercentile()));
+        this.budgetRatio = Math.min(1.0, Math.max(0, config.getHedgingBudgetPercent() / 100.0));
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(config.getHedgingMinDelayMillis());
+    }
+
+    /**
+     * Runs a call, hedging it with a second call when its response headers are late.
+     *
+     * @param primary  Starts the primary call; returns {@code null} when the call was not admitted
+     * @param hedge    Starts the hedge call; returns {@code null} when the call was not admitted
+     * @param executor Runs the hedge once its delay has passed
+     * @return Completes with the first successful response, or {@code null} when no call succeeded
+     */
+    <T> CompletableFuture<T> execute(Supplier<Attempt<T>> primary, Supplier<Attempt<T>> hedge, Executor executor) {
+        Attempt<T> first = start(primary);
+        if (first == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        onPrimaryCall();
+        long delayNanos = hedgeDelayNanos;
+        if (delayNanos < 0) {
+            return first.result;
+        }
+        Race<T> race = new Race<>();
+        race.add(first);
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, executor).execute(() -> {
+            if (first.headersReceived.isDone() || !race.isOpen() || !tryAcquireHedge()) {
+                return;
+            }
+            Attempt<T> second = start(hedge);
+            if (second != null && !race.add(second)) {
+                second.cancel.run();
+            }
+        });
+        return race.winner;
+    }
+
+    long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    private <T> Attempt<T> start(Supplier<Attempt<T>> call) {
+        long start = System.nanoTime();
+        Attempt<T> attempt = call.get();
+        if (attempt != null) {
+            attempt.headersReceived.thenRun(() -> recordHeaderLatency(System.nanoTime() - start));
+        }
+        return attempt;
+    }
+
+    private synchronized void onPrimaryCall() {
+        budgetTokens = Math.min(MAX_BUDGET_TOKENS, budgetTokens + budgetRatio);
+    }
+
+    private synchronized boolean tryAcquireHedge() {
+        if (budgetTokens < 1) {
+            return false;
+        }
+        budgetTokens -= 1;
+        return true;
+    }
+
+    private synchronized void recordHeaderLatency(long nanos) {
+        samples[sampleIndex] = nanos;
+        sampleIndex = (sampleIndex + 1) % SAMPLE_COUNT;
+        sampleCount = Math.min(SAMPLE_COUNT, sampleCount + 1);
+        if (++samplesSinceRecompute >= RECOMPUTE_INTERVAL && sampleCount >= MIN_SAMPLES) {
+            samplesSinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * sampleCount) - 1;
+            hedgeDelayNanos = Math.max(minDelayNanos, sorted[Math.max(0, rank)]);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Byte-bounded exact-match cache of LLM responses with W-TinyLFU eviction. New entries enter a small LRU window;
+ * entries leaving the window only make it into the main segmented LRU when the frequency sketch says they are
+ * requested more often than the entry they would displace, so one-off prompts cannot flush popular ones.
+ *
+ * <p>The cache is split into independently locked shards by key hash, each with its own share of the byte budget
+ * and its own sketch, so concurrent requests rarely wait on each other. Expired entries are removed when they are
+ * read and by a periodic sweep, one shard at a time, so entries that are never read again do not hold memory until
+ * eviction reaches them.
+ */
+final class ResponseCache {
+
+    private static final Log log = LogFactory.getLog(ResponseCache.class);
+
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int ASSUMED_ENTRY_BYTES = 4096;
+    private static final int MAX_SHARDS = 16;
+    // Shards are not made smaller than this, so that a small cache still holds large responses
+    private static final long MIN_SHARD_BYTES = 1024L * 1024;
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Entry {
+
+        private final String key;
+        private final String value;
+        private final long weight;
+        private final long expiresAtNanos;
+        private Segment segment;
+
+        private Entry(String key, String value, long expiresAtNanos) {
+            this.key = key;
+            this.value = value;
+            this.weight = ENTRY_OVERHEAD_BYTES + 2L * (key.length() + value.length());
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final Shard[] shards;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * @param maxBytes            Bound of the estimated size of all entries
+     * @param sweepIntervalMillis Time between sweeps for expired entries, or 0 to only drop them when read
+     */
+    ResponseCache(long maxBytes, long sweepIntervalMillis) {
+        long cappedBytes = Math.max(1, maxBytes);
+        int shardCount = (int) Math.max(1, Math.min(MAX_SHARDS, cappedBytes / MIN_SHARD_BYTES));
+        this.shards = new Shard[Integer.highestOneBit(shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(cappedBytes / shards.length);
+        }
+        if (sweepIntervalMillis > 0) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "transform-response-cache-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(this::sweepExpired, sweepIntervalMillis, sweepIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            sweeper = null;
+        }
+    }
+
+    /**
+     * Returns the cached response, or {@code null} when it is absent or expired.
+     */
+    String get(String key) {
+        return shardOf(key).get(key);
+    }
+
+    /**
+     * Caches a response for the given time to live. Responses larger than the main segment of a shard are not
+     * cached.
+     */
+    void put(String key, String value, long ttlMillis) {
+        shardOf(key).put(key, value, ttlMillis);
+    }
+
+    long weightedSize() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.weightedSize();
+        }
+        return size;
+    }
+
+    /**
+     * Removes every expired entry, locking one shard at a time.
+     *
+     * @return Number of entries removed
+     */
+    int sweepExpired() {
+        int removed = 0;
+        try {
+            for (Shard shard : shards) {
+                removed += shard.sweepExpired();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Error sweeping the response cache: " + e.getMessage());
+        }
+        return removed;
+    }
+
+    void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private Shard shardOf(String key) {
+        int hash = key.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+
+    /**
+     * One independently locked W-TinyLFU cache.
+     */
+    private static final class Shard {
+
+        private final long maxBytes;
+        private final long windowMaxBytes;
+        private final long protectedMaxBytes;
+        private final FrequencySketch sketch;
+
+        private final Map<String, Entry> entries = new HashMap<>();
+        // Insertion-ordered maps used as LRU queues: the first entry is the least recently used
+        private final LinkedHashMap<String, Entry> window = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Entry> protectedSegment = new LinkedHashMap<>();
+        private long windowBytes;
+        private long probationBytes;
+        private long protectedBytes;
+
+        private Shard(long maxBytes) {
+            this.maxBytes = Math.max(1, maxBytes);
+            this.windowMaxBytes = Math.max(1, this.maxBytes / 100);
+            this.protectedMaxBytes = (this.maxBytes - windowMaxBytes) * 4 / 5;
+            this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, this.maxBytes / ASSUMED_ENTRY_BYTES));
+        }
+
+        synchronized String get(String key) {
+            sketch.increment(key);
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos >= 0) {
+                remove(entry);
+                return null;
+            }
+            onAccess(entry);
+            return entry.value;
+        }
+
+        synchronized void put(String key, String value, long ttlMillis) {
+            Entry previous = entries.get(key);
+            if (previous != null) {
+                remove(previous);
+            }
+            Entry entry = new Entry(key, value, System.nanoTime() + ttlMillis * 1000000L);
+            if (entry.weight > maxBytes - windowMaxBytes) {
+                return;
+            }
+            entries.put(key, entry);
+            entry.segment = Segment.WINDOW;
+            window.put(key, entry);
+            windowBytes += entry.weight;
+            evict();
+        }
+
+        synchronized long weightedSize() {
+            return windowBytes + probationBytes + protectedBytes;
+        }
+
+        synchronized int sweepExpired() {
+            long now = System.nanoTime();
+            int removed = 0;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (now - entry.expiresAtNanos >= 0) {
+                    iterator.remove();
+                    removeFromSegment(entry);
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        private void onAccess(Entry entry) {
+            switch (entry.segment) {
+                case WINDOW:
+                    window.remove(entry.key);
+                    window.put(entry.key, entry);
+                    break;
+                case PROBATION:
+                    probation.remove(entry.key);
+                    probationBytes -= entry.weight;
+                    entry.segment = Segment.PROTECTED;
+                    protectedSegment.put(entry.key, entry);
+                    protectedBytes += entry.weight;
+                    demoteProtectedOverflow();
+                    break;
+                default:
+                    protectedSegment.remove(entry.key);
+                    protectedSegment.put(entry.key, entry);
+            }
+        }
+
+        private void demoteProtectedOverflow() {
+            Iterator<Entry> iterator = protectedSegment.values().iterator();
+            while (protectedBytes > protectedMaxBytes && iterator.hasNext()) {
+                Entry demoted = iterator.next();
+                iterator.remove();
+                protectedBytes -= demoted.weight;
+                demoted.segment = Segment.PROBATION;
+                probation.put(demoted.key, demoted);
+                probationBytes += demoted.weight;
+            }
+        }
+
+        /**
+         * Moves entries overflowing the window into the main segments, admitting each one only when it is more
+         * frequent than the probation victims it would evict.
+         */
+        private void evict() {
+            Iterator<Entry> windowIterator = window.values().iterator();
+            while (windowBytes > windowMaxBytes && windowIterator.hasNext()) {
+                Entry candidate = windowIterator.next();
+                windowIterator.remove();
+                windowBytes -= candidate.weight;
+                if (admit(candidate)) {
+                    candidate.segment = Segment.PROBATION;
+                    probation.put(candidate.key, candidate);
+                    probationBytes += candidate.weight;
+                } else {
+                    entries.remove(candidate.key);
+                }
+            }
+        }
+
+        private boolean admit(Entry candidate) {
+            long mainMaxBytes = maxBytes - windowMaxBytes;
+            if (probationBytes + protectedBytes + candidate.weight <= mainMaxBytes) {
+                return true;
+            }
+            int candidateFrequency = sketch.frequency(candidate.key);
+            long freed = 0;
+            long needed = probationBytes + protectedBytes + candidate.weight - mainMaxBytes;
+            for (Entry victim : probation.values()) {
+                if (freed >= needed) {
+                    break;
+                }
+                if (System.nanoTime() - victim.expiresAtNanos < 0
+                        && sketch.frequency(victim.key) >= candidateFrequency) {
+                    return false;
+                }
+                freed += victim.weight;
+            }
+            while (probationBytes + protectedBytes + candidate.weight > mainMaxBytes) {
+                LinkedHashMap<String, Entry> segment = probation.isEmpty() ? protectedSegment : probation;
+                if (segment.isEmpty()) {
+                    return false;
+                }
+                remove(segment.values().iterator().next());
+            }
+            return true;
+        }
+
+        private void remove(Entry entry) {
+            entries.remove(entry.key);
+            removeFromSegment(entry);
+        }
+
+        private void removeFromSegment(Entry entry) {
+            switch (entry.segment) {
+                case WINDOW:
+                    window.remove(entry.key);
+                    windowBytes -= entry.weight;
+                    break;
+                case PROBATION:
+                    probation.remove(entry.key);
+                    probationBytes -= entry.weight;
+                    break;
+                default:
+                    protectedSegment.remove(entry.key);
+                    protectedBytes -= entry.weight;
+            }
+        }
+    }
+}
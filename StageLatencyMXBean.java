@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+/**
+ * Latency of one stage of the transform pipeline for one API, backend or endpoint, registered under
+ * {@code org.wso2.carbon.apimgt.gateway.mediators:type=TransformStageLatency}. Count and total time cover the
+ * whole lifetime, so a scraper can derive rates; the percentiles and maximum describe the last complete interval.
+ */
+public interface StageLatencyMXBean {
+
+    String getStage();
+
+    /**
+     * API the requests were sent to, or {@code null} for stages inside the backend service.
+     */
+    String getApi();
+
+    String getBackend();
+
+    /**
+     * Upstream URL, or {@code null} for stages not tied to one endpoint.
+     */
+    String getEndpoint();
+
+    long getCount();
+
+    double getTotalMillis();
+
+    long getIntervalCount();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-stage latency histograms of one route through the transform pipeline: an API on a backend, or an endpoint
+ * of a backend. Each histogram is registered as a {@link StageLatencyMXBean} on first use, so the gateway's JMX
+ * scraping picks it up. Routes are shared by every mediator and service in the JVM and counted: the last
+ * {@link #release()} of a route unregisters its MBeans, so redeployed APIs do not leave routes behind.
+ */
+final class StageMetrics {
+
+    private static final Log log = LogFactory.getLog(StageMetrics.class);
+
+    static final String DOMAIN = "org.wso2.carbon.apimgt.gateway.mediators";
+
+    /**
+     * Stages of the pipeline, in the order a request passes them.
+     */
+    enum Stage {
+        MEDIATION("mediation"),
+        BUILD_MESSAGE("buildMessage"),
+        PARSE("parse"),
+        MODEL_REWRITE("modelRewrite"),
+        AVAILABILITY_CHECK("availabilityCheck"),
+        UPSTREAM("upstream"),
+        RATE_LIMIT_WAIT("rateLimitWait"),
+        UPSTREAM_EXCHANGE("upstreamExchange"),
+        RESPONSE_READ("responseRead"),
+        RESPONSE_REBUILD("responseRebuild");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    static final StageMetrics DISABLED = new StageMetrics(null, null, null, null, 0);
+
+    private static final Map<String, StageMetrics> routes = new ConcurrentHashMap<>();
+
+    private final String key;
+    private final String api;
+    private final String backend;
+    private final String endpoint;
+    private final long intervalMillis;
+    private final AtomicReferenceArray<StageLatency> stages = new AtomicReferenceArray<>(Stage.values().length);
+
+    // Only changed inside compute calls on the routes map
+    private int references;
+    // Guarded by this
+    private boolean released;
+
+    private StageMetrics(String key, String api, String backend, String endpoint, long intervalMillis) {
+        this.key = key;
+        this.api = api;
+        this.backend = backend;
+        this.endpoint = endpoint;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Returns the metrics of a route, or {@link #DISABLED} when stage metrics are turned off or there are already
+     * {@link TransformConfig#getStageMetricsMaxRoutes()} routes. Each call must be paired with a {@link #release()}.
+     *
+     * @param api      API the requests were sent to, or {@code null} for stages inside the backend service
+     * @param backend  Name of the backend
+     * @param endpoint Upstream URL, or {@code null} for stages not tied to one endpoint
+     */
+    static StageMetrics forRoute(String api, String backend, String endpoint, TransformConfig config) {
+        if (!config.isStageMetricsEnabled()) {
+            return DISABLED;
+        }
+        StageMetrics route = routes.compute(api + '\n' + backend + '\n' + endpoint, (key, existing) -> {
+            if (existing == null) {
+                if (routes.size() >= config.getStageMetricsMaxRoutes()) {
+                    return null;
+                }
+                existing = new StageMetrics(key, api, backend, endpoint, config.getStageMetricsIntervalMillis());
+            }
+            existing.references++;
+            return existing;
+        });
+        if (route == null) {
+            log.warn("Not recording stage metrics of API " + api + " on backend " + backend + ": there are already "
+                    + config.getStageMetricsMaxRoutes() + " routes");
+            return DISABLED;
+        }
+        return route;
+    }
+
+    /**
+     * Gives back a route obtained from {@link #forRoute}. The last release removes the route and unregisters its
+     * MBeans.
+     */
+    void release() {
+        if (this == DISABLED) {
+            return;
+        }
+        routes.computeIfPresent(key, (routeKey, route) -> {
+            if (route != this || --references > 0) {
+                return route;
+            }
+            unregister();
+            return null;
+        });
+    }
+
+    static int routeCount() {
+        return routes.size();
+    }
+
+    /**
+     * Records the time from {@code startNanos} until now against a stage.
+     */
+    void record(Stage stage, long startNanos) {
+        if (this == DISABLED) {
+            return;
+        }
+        long now = System.nanoTime();
+        StageLatency latency = stages.get(stage.ordinal());
+        if (latency == null) {
+            latency = register(stage);
+        }
+        latency.histogram.record(now - startNanos, now);
+    }
+
+    private synchronized StageLatency register(Stage stage) {
+        StageLatency latency = stages.get(stage.ordinal());
+        if (latency != null) {
+            return latency;
+        }
+        latency = new StageLatency(stage, new LatencyHistogram(intervalMillis));
+        stages.set(stage.ordinal(), latency);
+        if (released) {
+            return latency;
+        }
+        try {
+            StringBuilder name = new StringBuilder(DOMAIN).append(":type=TransformStageLatency,stage=")
+                    .append(stage.label);
+            if (api != null) {
+                name.append(",api=").append(ObjectName.quote(api));
+            }
+            name.append(",backend=").append(ObjectName.quote(String.valueOf(backend)));
+            if (endpoint != null) {
+                name.append(",endpoint=").append(ObjectName.quote(endpoint));
+            }
+            ObjectName objectName = new ObjectName(name.toString());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(latency, objectName);
+            latency.objectName = objectName;
+        } catch (JMException e) {
+            log.warn("Unable to register " + stage.label + " latency MBean: " + e.getMessage());
+        }
+        return latency;
+    }
+
+    private synchronized void unregister() {
+        released = true;
+        for (int i = 0; i < stages.length(); i++) {
+            StageLatency latency = stages.get(i);
+            if (latency == null || latency.objectName == null) {
+                continue;
+            }
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(latency.objectName);
+            } catch (JMException e) {
+                log.debug("Unable to unregister " + latency.stage.label + " latency MBean", e);
+            }
+            latency.objectName = null;
+        }
+    }
+
+    /**
+     * The MBean of one stage of the route.
+     */
+    private final class StageLatency implements StageLatencyMXBean {
+
+        private final Stage stage;
+        private final LatencyHistogram histogram;
+        private ObjectName objectName;
+
+        private StageLatency(Stage stage, LatencyHistogram histogram) {
+            this.stage = stage;
+            this.histogram = histogram;
+        }
+
+        @Override
+        public String getStage() {
+            return stage.label;
+        }
+
+        @Override
+        public String getApi() {
+            return api;
+        }
+
+        @Override
+        public String getBackend() {
+            return backend;
+        }
+
+        @Override
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public double getTotalMillis() {
+            return histogram.getTotalMillis();
+        }
+
+        @Override
+        public long getIntervalCount() {
+            return histogram.getIntervalCount();
+        }
+
+        @Override
+        public double getP50Millis() {
+            return histogram.getPercentileMillis(50);
+        }
+
+        @Override
+        public double getP90Millis() {
+            return histogram.getPercentileMillis(90);
+        }
+
+        @Override
+        public double getP99Millis() {
+            return histogram.getPercentileMillis(99);
+        }
+
+        @Override
+        public double getP999Millis() {
+            return histogram.getPercentileMillis(99.9);
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return histogram.getMaxMillis();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonObject;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the prompt and completion tokens of upstream responses per tenant, API and model. The {@code usage}
+ * block is located with {@link JsonFieldSplicer}, so the response is scanned rather than parsed a second time.
+ * The counts are published every interval to the {@value #REPORT_LOGGER} logger as one JSON line per tenant, API
+ * and model that had traffic, for the analytics appender to pick up. Counters without traffic in an interval are
+ * dropped, so the map only holds what is currently in use.
+ */
+final class TokenUsageRecorder {
+
+    private static final Log log = LogFactory.getLog(TokenUsageRecorder.class);
+
+    static final String REPORT_LOGGER = "TRANSFORM_TOKEN_USAGE";
+    private static final Log reportLog = LogFactory.getLog(REPORT_LOGGER);
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    // Counters dropped at the previous report, which a concurrent record may still have added to; only touched
+    // while publishing
+    private List<Counters> retired = new ArrayList<>();
+    private final long reportIntervalMillis;
+    private final ScheduledExecutorService scheduler;
+
+    TokenUsageRecorder(long reportIntervalMillis) {
+        this.reportIntervalMillis = Math.max(1000, reportIntervalMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transform-token-usage");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::publish, this.reportIntervalMillis, this.reportIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tenant and API a response is charged to.
+     */
+    static final class Account {
+
+        private final String tenant;
+        private final String api;
+        private final String defaultModel;
+
+        /**
+         * @param defaultModel Model to count under when the response does not name one
+         */
+        Account(String tenant, String api, String defaultModel) {
+            this.tenant = tenant;
+            this.api = api;
+            this.defaultModel = defaultModel;
+        }
+    }
+
+    /**
+     * Adds the usage reported in a non-streamed completion response. Responses without a usage block still count
+     * as a request.
+     *
+     * @param response UTF-8 JSON body of the upstream response
+     */
+    void record(Account account, byte[] response) {
+        long promptTokens = 0;
+        long completionTokens = 0;
+        int[] usage = JsonFieldSplicer.findTopLevelValue(response, response.length, "usage");
+        if (usage != null && usage[0] >= 0 && response[usage[0]] == '{') {
+            byte[] usageJson = Arrays.copyOfRange(response, usage[0], usage[1]);
+            promptTokens = longValue(usageJson, "prompt_tokens");
+            completionTokens = longValue(usageJson, "completion_tokens");
+        }
+        String model = stringValue(response, "model");
+        if (model == null) {
+            model = account.defaultModel;
+        }
+        String key = account.tenant + '\n' + account.api + '\n' + model;
+        Counters entry = counters.get(key);
+        if (entry == null) {
+            String countedModel = model;
+            entry = counters.computeIfAbsent(key, k -> new Counters(account.tenant, account.api, countedModel));
+        }
+        entry.promptTokens.add(promptTokens);
+        entry.completionTokens.add(completionTokens);
+        entry.requests.increment();
+    }
+
+    void shutdown() {
+        scheduler.shutdownNow();
+        publish();
+    }
+
+    /**
+     * Logs what each tenant, API and model used since the previous report.
+     */
+    private void publish() {
+        try {
+            for (JsonObject report : collectReports()) {
+                reportLog.info(report.toString());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Error publishing token usage: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns one report per tenant, API and model with traffic since the previous call. The counters are only
+     * read, and each report is the difference to the last one, so no update made while collecting is lost.
+     * Counters without traffic are removed from the map but still reported once more at the next call, in case a
+     * record that looked them up just before had not added its counts yet.
+     */
+    synchronized List<JsonObject> collectReports() {
+        List<JsonObject> reports = new ArrayList<>();
+        for (Counters entry : retired) {
+            addReport(entry, reports);
+        }
+        retired = new ArrayList<>();
+        Iterator<Map.Entry<String, Counters>> entries = counters.entrySet().iterator();
+        while (entries.hasNext()) {
+            Counters entry = entries.next().getValue();
+            if (!addReport(entry, reports)) {
+                entries.remove();
+                retired.add(entry);
+            }
+        }
+        return reports;
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    /**
+     * Adds the report of what an entry counted since its last report, if anything.
+     *
+     * @return whether there was anything to report
+     */
+    private boolean addReport(Counters entry, List<JsonObject> reports) {
+        long requests = entry.requests.sum();
+        long promptTokens = entry.promptTokens.sum();
+        long completionTokens = entry.completionTokens.sum();
+        if (requests == entry.reportedRequests && promptTokens == entry.reportedPromptTokens
+                && completionTokens == entry.reportedCompletionTokens) {
+            return false;
+        }
+        JsonObject report = new JsonObject();
+        report.addProperty("tenant", entry.tenant);
+        report.addProperty("api", entry.api);
+        report.addProperty("model", entry.model);
+        report.addProperty("requests", requests - entry.reportedRequests);
+        report.addProperty("promptTokens", promptTokens - entry.reportedPromptTokens);
+        report.addProperty("completionTokens", completionTokens - entry.reportedCompletionTokens);
+        report.addProperty("totalTokens", promptTokens - entry.reportedPromptTokens
+                + completionTokens - entry.reportedCompletionTokens);
+        report.addProperty("intervalMillis", reportIntervalMillis);
+        reports.add(report);
+        entry.reportedRequests = requests;
+        entry.reportedPromptTokens = promptTokens;
+        entry.reportedCompletionTokens = completionTokens;
+        return true;
+    }
+
+    private static String stringValue(byte[] json, String key) {
+        int[] span = JsonFieldSplicer.findTopLevelValue(json, json.length, key);
+        if (span == null || span[0] < 0 || json[span[0]] != '"' || span[1] - span[0] < 2) {
+            return null;
+        }
+        return new String(json, span[0] + 1, span[1] - span[0] - 2, StandardCharsets.UTF_8);
+    }
+
+    private static long longValue(byte[] json, String key) {
+        int[] span = JsonFieldSplicer.findTopLevelValue(json, json.length, key);
+        if (span == null || span[0] < 0) {
+            return 0;
+        }
+        long value = 0;
+        for (int i = span[0]; i < span[1]; i++) {
+            byte b = json[i];
+            if (b < '0' || b > '9') {
+                return 0;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Counts of one tenant, API and model. The reported totals are only touched by {@link #collectReports()}.
+     */
+    private static final class Counters {
+
+        private final String tenant;
+        private final String api;
+        private final String model;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private long reportedRequests;
+        private long reportedPromptTokens;
+        private long reportedCompletionTokens;
+
+        private Counters(String tenant, String api, String model) {
+            this.tenant = tenant;
+            this.api = api;
+            this.model = model;
+        }
+    }
+}
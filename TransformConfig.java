@@ -0,0 +1,592 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.Gson;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of the TransformMediator, read from the {@code transformConfigs} JSON string.
+ * Every field has a default, so an absent or partial configuration is valid.
+ */
+public class TransformConfig {
+
+    private static final Log log = LogFactory.getLog(TransformConfig.class);
+
+    /**
+     * One entry of the {@code backends} list. Unset values fall back to the defaults of the backend type.
+     */
+    public static final class BackendConfig {
+
+        private String name;
+        private String type;
+        private String url;
+        private List<String> urls;
+        private String healthCheckUrl;
+        private String apiKey;
+        private List<String> apiKeys;
+        private String model;
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Backend type: {@code mistral} (the default), {@code openai-compatible} or an {@link LlmBackend} class name.
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Chat-completions URL of the backend.
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Every endpoint serving the backend's model, for balancing calls across regions or replicas.
+         */
+        public List<String> getUrls() {
+            return urls != null ? urls : Collections.emptyList();
+        }
+
+        public String getHealthCheckUrl() {
+            return healthCheckUrl;
+        }
+
+        public String getApiKey() {
+            return apiKey;
+        }
+
+        /**
+         * Pool of API keys to spread calls across, each with its own quota; takes precedence over {@code apiKey}.
+         */
+        public List<String> getApiKeys() {
+            return apiKeys != null ? apiKeys : Collections.emptyList();
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        BackendConfig withName(String name) {
+            BackendConfig copy = new BackendConfig();
+            copy.name = name;
+            copy.type = type;
+            copy.url = url;
+            copy.urls = urls;
+            copy.healthCheckUrl = healthCheckUrl;
+            copy.apiKey = apiKey;
+            copy.apiKeys = apiKeys;
+            copy.model = model;
+            return copy;
+        }
+    }
+
+    private int maxConnectionsPerRoute = 50;
+    private int maxConnectionsTotal = 200;
+    private long connectionIdleTimeoutMillis = 30000;
+    private long keepAliveMillis = 60000;
+    private long connectTimeoutMillis = 10000;
+    private long connectionRequestTimeoutMillis = 10000;
+    private long readTimeoutMillis = 120000;
+    private int asyncIoThreads = 2;
+    private String asyncResumeSequence;
+    private int circuitBreakerWindowSize = 20;
+    private int circuitBreakerMinimumCalls = 10;
+    private int circuitBreakerFailureRateThreshold = 50;
+    private int circuitBreakerSlowCallRateThreshold = 80;
+    private long circuitBreakerSlowCallDurationMillis = 30000;
+    private long circuitBreakerOpenDurationMillis = 30000;
+    private int circuitBreakerHalfOpenPermittedCalls = 3;
+    private boolean healthProbeEnabled = true;
+    private long healthProbeIntervalMillis = 10000;
+    private double healthProbeJitter = 0.2;
+    private long healthProbeTimeoutMillis = 5000;
+    private int healthProbeFailureThreshold = 3;
+    private long healthProbeRetryMillis = 1000;
+    private boolean responseCacheEnabled = true;
+    private long responseCacheMaxBytes = 64L * 1024 * 1024;
+    private long responseCacheTtlSeconds = 300;
+    private Map<String, Long> responseCacheApiTtlSeconds;
+    private boolean responseCacheDeterministicOnly = true;
+    private long responseCacheSweepIntervalMillis = 60000;
+    private double completionTemperature = 0.1;
+    private boolean requestCoalescingEnabled = true;
+    private int coalescingMaxWaiters = 100;
+    private long coalescingWaitTimeoutMillis = 60000;
+    private boolean classificationBatchingEnabled;
+    private long classificationBatchWindowMillis = 5;
+    private int classificationBatchMaxSize = 16;
+    private boolean concurrencyLimitEnabled = true;
+    private int concurrencyLimitInitial = 20;
+    private int concurrencyLimitMin = 2;
+    private int concurrencyLimitMax = 500;
+    private double concurrencyLimitRttTolerance = 2.0;
+    private double concurrencyLimitSmoothing = 0.2;
+    private long concurrencyLimitQueueTimeoutMillis = 50;
+    private boolean rateLimitEnabled = true;
+    private long rateLimitMaxPacingDelayMillis = 2000;
+    private long apiKeyCooldownMillis = 1000;
+    private int upstreamMaxRetries = 2;
+    private long upstreamRetryBackoffMillis = 200;
+    private boolean hedgingEnabled = false;
+    private double hedgingPercentile = 95.0;
+    private double hedgingBudgetPercent = 5.0;
+    private long hedgingMinDelayMillis = 50;
+    private long requestTimeoutMillis = 0;
+    private Map<String, Long> requestTimeoutApiMillis;
+    private String requestTimeoutHeader = "X-Request-Timeout";
+    private boolean virtualThreadsEnabled = false;
+    private int virtualThreadMaxConcurrency = 0;
+    private long virtualThreadQueueTimeoutMillis = 10000;
+    private List<BackendConfig> backends;
+    private long loadBalancerDecayMillis = 10000;
+    private int outlierFailureRateThreshold = 50;
+    private int outlierMinimumCalls = 5;
+    private long outlierEjectionMillis = 30000;
+    private int outlierMaxEjectionPercent = 50;
+    private Map<String, String> apiBackends;
+    private boolean stageMetricsEnabled = true;
+    private long stageMetricsIntervalMillis = 60000;
+    private int stageMetricsMaxRoutes = 1000;
+    private boolean tokenUsageEnabled = true;
+    private long tokenUsageReportIntervalMillis = 60000;
+
+    /**
+     * Parses the given configuration JSON, falling back to defaults when it is absent or invalid.
+     *
+     * @param transformConfigs The configuration JSON string
+     * @return The parsed configuration
+     */
+    public static TransformConfig parse(String transformConfigs) {
+        if (transformConfigs == null || transformConfigs.trim().isEmpty()) {
+            return new TransformConfig();
+        }
+        try {
+            TransformConfig config = new Gson().fromJson(transformConfigs, TransformConfig.class);
+            return config != null ? config : new TransformConfig();
+        } catch (Exception e) {
+            log.warn("Invalid transform configuration, using defaults: " + e.getMessage());
+            return new TransformConfig();
+        }
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    public long getConnectionIdleTimeoutMillis() {
+        return connectionIdleTimeoutMillis;
+    }
+
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * Longest wait for a pooled connection to become free.
+     */
+    public long getConnectionRequestTimeoutMillis() {
+        return connectionRequestTimeoutMillis;
+    }
+
+    /**
+     * Longest wait for data from the upstream: between two reads of a blocking call, and for the response headers
+     * of an async call. Applies even when the request has no deadline, so a hung upstream cannot hold a call forever.
+     */
+    public long getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public int getAsyncIoThreads() {
+        return Math.max(1, asyncIoThreads);
+    }
+
+    /**
+     * Name of the sequence that continues mediation after an async Mistral call; blocking mediation when unset.
+     */
+    public String getAsyncResumeSequence() {
+        return asyncResumeSequence;
+    }
+
+    public int getCircuitBreakerWindowSize() {
+        return circuitBreakerWindowSize;
+    }
+
+    public int getCircuitBreakerMinimumCalls() {
+        return circuitBreakerMinimumCalls;
+    }
+
+    /**
+     * Failure rate, in percent of the sliding window, at which the circuit breaker opens.
+     */
+    public int getCircuitBreakerFailureRateThreshold() {
+        return circuitBreakerFailureRateThreshold;
+    }
+
+    /**
+     * Slow-call rate, in percent of the sliding window, at which the circuit breaker opens.
+     */
+    public int getCircuitBreakerSlowCallRateThreshold() {
+        return circuitBreakerSlowCallRateThreshold;
+    }
+
+    public long getCircuitBreakerSlowCallDurationMillis() {
+        return circuitBreakerSlowCallDurationMillis;
+    }
+
+    public long getCircuitBreakerOpenDurationMillis() {
+        return circuitBreakerOpenDurationMillis;
+    }
+
+    public int getCircuitBreakerHalfOpenPermittedCalls() {
+        return circuitBreakerHalfOpenPermittedCalls;
+    }
+
+    public boolean isHealthProbeEnabled() {
+        return healthProbeEnabled;
+    }
+
+    public long getHealthProbeIntervalMillis() {
+        return healthProbeIntervalMillis;
+    }
+
+    /**
+     * Fraction by which each probe interval is randomly stretched or shortened, so probers do not align.
+     */
+    public double getHealthProbeJitter() {
+        return healthProbeJitter;
+    }
+
+    public long getHealthProbeTimeoutMillis() {
+        return healthProbeTimeoutMillis;
+    }
+
+    /**
+     * Number of failed probes in a row after which the backend is reported unavailable.
+     */
+    public int getHealthProbeFailureThreshold() {
+        return healthProbeFailureThreshold;
+    }
+
+    /**
+     * Delay before the next probe after a failed one, capped by the probe interval.
+     */
+    public long getHealthProbeRetryMillis() {
+        return healthProbeRetryMillis;
+    }
+
+    /**
+     * Whether responses are cached. With {@link #isResponseCacheDeterministicOnly()}, the default, this only takes
+     * effect once {@link #getCompletionTemperature()} is set to 0; at the default temperature of 0.1 the cache is
+     * not started.
+     */
+    public boolean isResponseCacheEnabled() {
+        return responseCacheEnabled;
+    }
+
+    public long getResponseCacheMaxBytes() {
+        return responseCacheMaxBytes;
+    }
+
+    public long getResponseCacheTtlSeconds() {
+        return responseCacheTtlSeconds;
+    }
+
+    /**
+     * Response cache TTLs overriding the default, keyed by the API key returned by
+     * {@code GatewayUtils.getAPIKeyForEndpoints}.
+     */
+    public Map<String, Long> getResponseCacheApiTtlSeconds() {
+        return responseCacheApiTtlSeconds != null ? responseCacheApiTtlSeconds : Collections.emptyMap();
+    }
+
+    /**
+     * Whether responses are only cached when the backend is sent requests with temperature 0, as set by
+     * {@link #getCompletionTemperature()}.
+     */
+    public boolean isResponseCacheDeterministicOnly() {
+        return responseCacheDeterministicOnly;
+    }
+
+    /**
+     * Time between sweeps removing expired responses from the cache; 0 only drops them when they are read.
+     */
+    public long getResponseCacheSweepIntervalMillis() {
+        return responseCacheSweepIntervalMillis;
+    }
+
+    /**
+     * Sampling temperature of the completions sent to the backends. Set it to 0 for the response cache to store
+     * anything, unless {@link #isResponseCacheDeterministicOnly()} is turned off.
+     */
+    public double getCompletionTemperature() {
+        return completionTemperature;
+    }
+
+    public boolean isRequestCoalescingEnabled() {
+        return requestCoalescingEnabled;
+    }
+
+    /**
+     * Maximum number of callers waiting on one in-flight upstream call; further callers call upstream themselves.
+     */
+    public int getCoalescingMaxWaiters() {
+        return coalescingMaxWaiters;
+    }
+
+    public long getCoalescingWaitTimeoutMillis() {
+        return coalescingWaitTimeoutMillis;
+    }
+
+    /**
+     * Whether concurrent single-prompt classification calls are gathered into batched completions.
+     */
+    public boolean isClassificationBatchingEnabled() {
+        return classificationBatchingEnabled;
+    }
+
+    public long getClassificationBatchWindowMillis() {
+        return classificationBatchWindowMillis;
+    }
+
+    public int getClassificationBatchMaxSize() {
+        return classificationBatchMaxSize;
+    }
+
+    public boolean isConcurrencyLimitEnabled() {
+        return concurrencyLimitEnabled;
+    }
+
+    public int getConcurrencyLimitInitial() {
+        return concurrencyLimitInitial;
+    }
+
+    public int getConcurrencyLimitMin() {
+        return concurrencyLimitMin;
+    }
+
+    public int getConcurrencyLimitMax() {
+        return concurrencyLimitMax;
+    }
+
+    /**
+     * How many times the minimum round-trip time a call may take before the concurrency limit starts to shrink.
+     */
+    public double getConcurrencyLimitRttTolerance() {
+        return concurrencyLimitRttTolerance;
+    }
+
+    public double getConcurrencyLimitSmoothing() {
+        return concurrencyLimitSmoothing;
+    }
+
+    /**
+     * How long a blocking call over the concurrency limit waits for a slot before it is rejected.
+     */
+    public long getConcurrencyLimitQueueTimeoutMillis() {
+        return concurrencyLimitQueueTimeoutMillis;
+    }
+
+    public boolean isRateLimitEnabled() {
+        return rateLimitEnabled;
+    }
+
+    /**
+     * Longest time a call is held back to stay under the upstream quota; calls that would wait longer are rejected.
+     */
+    public long getRateLimitMaxPacingDelayMillis() {
+        return rateLimitMaxPacingDelayMillis;
+    }
+
+    /**
+     * Time an API key is rested after a 429 that carries no {@code Retry-After}.
+     */
+    public long getApiKeyCooldownMillis() {
+        return apiKeyCooldownMillis;
+    }
+
+    public int getUpstreamMaxRetries() {
+        return upstreamMaxRetries;
+    }
+
+    public long getUpstreamRetryBackoffMillis() {
+        return upstreamRetryBackoffMillis;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    /**
+     * Percentile of recent header latencies after which an async call is hedged with a duplicate call.
+     */
+    public double getHedgingPercentile() {
+        return hedgingPercentile;
+    }
+
+    /**
+     * Most extra upstream load hedging may add, as a percentage of primary calls.
+     */
+    public double getHedgingBudgetPercent() {
+        return hedgingBudgetPercent;
+    }
+
+    public long getHedgingMinDelayMillis() {
+        return hedgingMinDelayMillis;
+    }
+
+    /**
+     * Time budget of a mediated request, in milliseconds; 0 leaves requests without a deadline.
+     */
+    public long getRequestTimeoutMillis() {
+        return requestTimeoutMillis;
+    }
+
+    /**
+     * Per-API request time budgets in milliseconds, keyed by API key, overriding the default budget.
+     */
+    public Map<String, Long> getRequestTimeoutApiMillis() {
+        return requestTimeoutApiMillis != null ? requestTimeoutApiMillis : Collections.emptyMap();
+    }
+
+    /**
+     * Request header through which a client can shorten the time budget, in milliseconds.
+     */
+    public String getRequestTimeoutHeader() {
+        return requestTimeoutHeader;
+    }
+
+    /**
+     * Whether async mediation runs the blocking HTTP exchange on virtual threads instead of the non-blocking client.
+     * Only applies with an {@link #getAsyncResumeSequence() async resume sequence}; without one, mediation blocks
+     * its worker thread on the pooled client either way.
+     */
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    /**
+     * Most blocking calls in flight per backend in virtual-thread mode; 0 uses the per-route connection limit.
+     */
+    public int getVirtualThreadMaxConcurrency() {
+        return virtualThreadMaxConcurrency;
+    }
+
+    public long getVirtualThreadQueueTimeoutMillis() {
+        return virtualThreadQueueTimeoutMillis;
+    }
+
+    /**
+     * LLM backends requests can be routed to; the first one serves every API without a route of its own. Without
+     * any configured backend, a single Mistral backend with default settings is used.
+     */
+    public List<BackendConfig> getBackends() {
+        return backends != null && !backends.isEmpty() ? backends : Collections.singletonList(new BackendConfig());
+    }
+
+    /**
+     * Backend names by API key, for APIs that are not served by the first backend.
+     */
+    public Map<String, String> getApiBackends() {
+        return apiBackends != null ? apiBackends : Collections.emptyMap();
+    }
+
+    /**
+     * Time over which an endpoint's latency average forgets old samples.
+     */
+    public long getLoadBalancerDecayMillis() {
+        return loadBalancerDecayMillis;
+    }
+
+    /**
+     * Error rate, in percent, over the last {@link #getOutlierMinimumCalls()} calls at which an endpoint is ejected
+     * from load balancing.
+     */
+    public int getOutlierFailureRateThreshold() {
+        return outlierFailureRateThreshold;
+    }
+
+    /**
+     * Number of most recent calls an endpoint's error rate is counted over; no endpoint is ejected before it has
+     * had that many.
+     */
+    public int getOutlierMinimumCalls() {
+        return outlierMinimumCalls;
+    }
+
+    /**
+     * Base ejection time; an endpoint ejected again soon after returning stays out proportionally longer.
+     */
+    public long getOutlierEjectionMillis() {
+        return outlierEjectionMillis;
+    }
+
+    /**
+     * Largest share of a backend's endpoints that may be ejected at the same time.
+     */
+    public int getOutlierMaxEjectionPercent() {
+        return outlierMaxEjectionPercent;
+    }
+
+    /**
+     * Whether the latency of each pipeline stage is recorded and published as JMX MBeans.
+     */
+    public boolean isStageMetricsEnabled() {
+        return stageMetricsEnabled;
+    }
+
+    /**
+     * Length of the interval the published stage percentiles describe.
+     */
+    public long getStageMetricsIntervalMillis() {
+        return stageMetricsIntervalMillis;
+    }
+
+    /**
+     * Most API, backend and endpoint routes that have stage metrics at once; further routes are not measured.
+     */
+    public int getStageMetricsMaxRoutes() {
+        return stageMetricsMaxRoutes;
+    }
+
+    /**
+     * Whether prompt and completion tokens of upstream responses are counted and reported for analytics.
+     */
+    public boolean isTokenUsageEnabled() {
+        return tokenUsageEnabled;
+    }
+
+    public long getTokenUsageReportIntervalMillis() {
+        return tokenUsageReportIntervalMillis;
+    }
+}
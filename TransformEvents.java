@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the transform pipeline, so a slow request in a recording can be lined up with the
+ * GC pauses and lock contention around it. An event is created and begun unconditionally, but its fields are only
+ * filled in after {@link Event#shouldCommit()} or {@link Event#isEnabled()}; without a recording that enables them
+ * the JIT reduces this to almost nothing. Stack traces are off, since every event comes from a known call site.
+ */
+final class TransformEvents {
+
+    private static final String CATEGORY = "WSO2 API Gateway";
+    private static final String SUBCATEGORY = "Transform Mediator";
+
+    private TransformEvents() {
+    }
+
+    @Name("org.wso2.carbon.apimgt.gateway.mediators.Mediation")
+    @Label("Transform Mediation")
+    @Description("Time TransformMediator.mediate spent on the worker thread; a suspended flow continues in the "
+            + "upstream exchange")
+    @Category({CATEGORY, SUBCATEGORY})
+    @StackTrace(false)
+    static final class Mediation extends Event {
+
+        @Label("API")
+        String api;
+
+        @Label("Backend")
+        String backend;
+    }
+
+    @Name("org.wso2.carbon.apimgt.gateway.mediators.PayloadParse")
+    @Label("Payload Parse")
+    @Description("Reading and parsing the client's JSON payload")
+    @Category({CATEGORY, SUBCATEGORY})
+    @StackTrace(false)
+    static final class PayloadParse extends Event {
+
+        @Label("Payload Size")
+        @DataAmount
+        long payloadBytes;
+    }
+
+    @Name("org.wso2.carbon.apimgt.gateway.mediators.ModelRewrite")
+    @Label("Model Rewrite")
+    @Description("Replacing the client's model with the backend's model in the payload")
+    @Category({CATEGORY, SUBCATEGORY})
+    @StackTrace(false)
+    static final class ModelRewrite extends Event {
+
+        @Label("Model")
+        String model;
+    }
+
+    /**
+     * Committed on the thread that saw the call end. That is the mediation thread for blocking calls, but an
+     * executor thread of the async HTTP client for async and streamed calls, so those events carry that thread and
+     * not the one the request was mediated on; match them by endpoint and time instead.
+     */
+    @Name("org.wso2.carbon.apimgt.gateway.mediators.UpstreamExchange")
+    @Label("Upstream Exchange")
+    @Description("One HTTP call to an LLM endpoint, until the response headers arrived or, for non-streamed async "
+            + "calls, the whole body")
+    @Category({CATEGORY, SUBCATEGORY})
+    @StackTrace(false)
+    static final class UpstreamExchange extends Event {
+
+        @Label("Backend")
+        String backend;
+
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("Status")
+        @Description("HTTP status, or 0 when no response was received")
+        int status;
+
+        @Label("Request Size")
+        @DataAmount
+        long requestBytes;
+
+        @Label("Response Size")
+        @Description("Content-Length of the response, or -1 when it was not announced")
+        @DataAmount
+        long responseBytes;
+
+        @Label("Retry")
+        @Description("Number of attempts of the same call before this one")
+        int retry;
+
+        @Label("Streamed")
+        boolean streamed;
+    }
+
+    @Name("org.wso2.carbon.apimgt.gateway.mediators.ResponseCacheLookup")
+    @Label("Response Cache Lookup")
+    @Category({CATEGORY, SUBCATEGORY})
+    @StackTrace(false)
+    static final class ResponseCacheLookup extends Event {
+
+        @Label("API")
+        String api;
+
+        @Label("Hit")
+        boolean hit;
+    }
+}
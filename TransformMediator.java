@@ -15,35 +15,57 @@
 
 package org.wso2.carbon.apimgt.gateway.mediators;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.ManagedLifecycle;
+import org.apache.synapse.Mediator;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.commons.json.JsonUtil;
 import org.apache.synapse.core.SynapseEnvironment;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.mediators.AbstractMediator;
+import org.apache.synapse.mediators.base.SequenceMediator;
 import org.apache.synapse.transport.passthru.util.RelayUtils;
 import org.wso2.carbon.apimgt.api.APIConstants;
 import org.wso2.carbon.apimgt.api.gateway.ModelEndpointDTO;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
 import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
 
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * TransformMediator extracts user request content, removes user-specified models,
- * and routes everything to hardcoded Mistral service through AIAPIMediator.
+ * and routes everything to the configured LLM backend (Mistral by default) through AIAPIMediator.
  */
 public class TransformMediator extends AbstractMediator implements ManagedLifecycle {
 
     private static final Log log = LogFactory.getLog(TransformMediator.class);
     
     private String transformConfigs;
-    private static final String HARDCODED_MODEL = "mistral-large-latest";
+    private static final QName BINARY_PAYLOAD_QNAME = new QName("http://ws.apache.org/commons/ns/payload", "binary");
+
+    private TransformConfig config;
+    private SynapseEnvironment synapseEnvironment;
+    private final Map<String, MistralService> backendServices = new LinkedHashMap<>();
+    private MistralService defaultService;
+    private ResponseCache responseCache;
+    private TokenUsageRecorder tokenUsage;
+    private final Map<String, StageMetrics> apiStageMetrics = new ConcurrentHashMap<>();
 
     /**
      * Sets the transform configuration JSON string (kept for compatibility).
@@ -65,22 +87,84 @@ public class TransformMediator extends AbstractMediator implements ManagedLifecy
 
     @Override
     public void init(SynapseEnvironment synapseEnvironment) {
+        this.synapseEnvironment = synapseEnvironment;
+        config = TransformConfig.parse(transformConfigs);
+        createBackendServices();
+        boolean cacheable = config.isResponseCacheEnabled();
+        if (cacheable && config.isResponseCacheDeterministicOnly() && config.getCompletionTemperature() != 0) {
+            log.info("Response cache not started: only calls with completionTemperature 0 are cached, but it is "
+                    + config.getCompletionTemperature());
+            cacheable = false;
+        }
+        responseCache = cacheable ? new ResponseCache(config.getResponseCacheMaxBytes(),
+                config.getResponseCacheSweepIntervalMillis()) : null;
+        tokenUsage = config.isTokenUsageEnabled()
+                ? new TokenUsageRecorder(config.getTokenUsageReportIntervalMillis()) : null;
+        String resumeSequence = config.getAsyncResumeSequence();
+        if (config.isVirtualThreadsEnabled() && (resumeSequence == null || resumeSequence.isEmpty())) {
+            log.warn("Virtual threads only apply to async mediation, which needs an async resume sequence");
+        }
         if (log.isDebugEnabled()) {
             log.debug("TransformMediator: Initialized.");
         }
     }
 
+    /**
+     * Creates one service, with its own connection pool and metrics, per configured backend. Invalid entries are
+     * skipped; when none is usable, the default Mistral backend is used.
+     */
+    private void createBackendServices() {
+        for (TransformConfig.BackendConfig backendConfig : config.getBackends()) {
+            LlmBackend backend;
+            try {
+                backend = LlmBackend.create(backendConfig);
+            } catch (IllegalArgumentException e) {
+                log.error("Skipping invalid LLM backend configuration", e);
+                continue;
+            }
+            if (backendServices.containsKey(backend.getName())) {
+                log.warn("Ignoring duplicate LLM backend " + backend.getName());
+                continue;
+            }
+            backendServices.put(backend.getName(), new MistralService(config, backend));
+        }
+        if (backendServices.isEmpty()) {
+            MistralService service = new MistralService(config);
+            backendServices.put(service.getBackend().getName(), service);
+        }
+        defaultService = backendServices.values().iterator().next();
+    }
+
     @Override
     public void destroy() {
-        // Clean up resources if needed
+        for (MistralService service : backendServices.values()) {
+            service.close();
+        }
+        backendServices.clear();
+        defaultService = null;
+        for (StageMetrics stages : apiStageMetrics.values()) {
+            stages.release();
+        }
+        apiStageMetrics.clear();
+        if (responseCache != null) {
+            responseCache.shutdown();
+            responseCache = null;
+        }
+        if (tokenUsage != null) {
+            tokenUsage.shutdown();
+            tokenUsage = null;
+        }
     }
 
     /**
      * Mediates the message by extracting user request content, removing user-specified model,
-     * and routing to hardcoded Mistral service through AIAPIMediator.
+     * and routing to the API's LLM backend through AIAPIMediator.
+     *
+     * When an async resume sequence is configured, the flow is suspended while Mistral is called
+     * and continues in that sequence from the response callback.
      *
      * @param messageContext The Synapse {@link MessageContext} to be processed.
-     * @return {@code true} if mediation is successful, {@code false} if an error occurs
+     * @return {@code true} if mediation is successful, {@code false} if an error occurs or the flow was suspended
      */
     @Override
     public boolean mediate(MessageContext messageContext) {
@@ -88,56 +172,142 @@ public class TransformMediator extends AbstractMediator implements ManagedLifecy
             log.debug("TransformMediator mediation started.");
         }
 
+        TransformEvents.Mediation mediationEvent = new TransformEvents.Mediation();
+        mediationEvent.begin();
+        long mediationStart = System.nanoTime();
+        StageMetrics stages = StageMetrics.DISABLED;
         try {
             // Initialize cache
-            DataHolder.getInstance().initCache(GatewayUtils.getAPIKeyForEndpoints(messageContext));
+            String apiKey = GatewayUtils.getAPIKeyForEndpoints(messageContext);
+            DataHolder.getInstance().initCache(apiKey);
+
+            // Start the clock on the client's time budget before any work is done
+            RequestDeadline deadline = resolveDeadline(messageContext, apiKey);
+            messageContext.setProperty(RequestDeadline.PROPERTY, deadline);
+
+            // The backend is chosen up front so that every stage is measured against it
+            MistralService service = selectService(apiKey);
+            stages = getStageMetrics(apiKey, service);
+            if (mediationEvent.isEnabled()) {
+                mediationEvent.api = apiKey;
+                mediationEvent.backend = service.getBackend().getName();
+            }
 
-            // Extract user request content
-            String userRequestContent = extractUserRequestContent(messageContext);
+            // Parse the request once and extract user request content
+            TransformRequest transformRequest = parseUserRequest(messageContext, stages);
+            String userRequestContent = transformRequest != null ? transformRequest.getUserContent() : null;
             if (userRequestContent == null || userRequestContent.trim().isEmpty()) {
                 log.warn("Unable to extract user request content");
                 return true;
             }
+            if (deadline.isExpired()) {
+                return rejectExpiredRequest(messageContext);
+            }
 
-            // Remove user-specified model from request and force Mistral
-            removeUserModelFromRequest(messageContext);
+            // Remove user-specified model from request and force the backend's model
+            TransformEvents.ModelRewrite rewriteEvent = new TransformEvents.ModelRewrite();
+            rewriteEvent.begin();
+            long rewriteStart = System.nanoTime();
+            removeUserModelFromRequest(messageContext, transformRequest, service.getBackend());
+            stages.record(StageMetrics.Stage.MODEL_REWRITE, rewriteStart);
+            if (rewriteEvent.shouldCommit()) {
+                rewriteEvent.model = service.getBackend().getModel();
+                rewriteEvent.commit();
+            }
 
-            // Route to hardcoded Mistral service
-            return routeToMistralService(messageContext, userRequestContent);
+            // Route to the API's LLM backend
+            return routeToMistralService(messageContext, transformRequest, apiKey, deadline, service, stages);
 
         } catch (Exception e) {
             log.error("Error in TransformMediator mediation", e);
             return false;
+        } finally {
+            // Time on the worker thread; a suspended flow continues in the upstream and rebuild stages
+            stages.record(StageMetrics.Stage.MEDIATION, mediationStart);
+            mediationEvent.commit();
         }
     }
 
+    private StageMetrics getStageMetrics(String apiKey, MistralService service) {
+        return apiStageMetrics.computeIfAbsent(String.valueOf(apiKey),
+                api -> StageMetrics.forRoute(api, service.getBackend().getName(), null, config));
+    }
+
     /**
-     * Removes user-specified model from the request payload and forces Mistral model.
+     * Returns the service of the backend the API is routed to, or of the first backend when it has no route.
      */
-    private void removeUserModelFromRequest(MessageContext messageContext) {
+    private MistralService selectService(String apiKey) {
+        String backendName = config.getApiBackends().get(apiKey);
+        MistralService service = backendName != null ? backendServices.get(backendName) : null;
+        if (service == null && backendName != null) {
+            log.warn("Unknown LLM backend " + backendName + ", using " + defaultService.getBackend().getName());
+        }
+        return service != null ? service : defaultService;
+    }
+
+    /**
+     * Resolves the time budget of the request: the API's configured budget, shortened by the client's timeout
+     * header when that is smaller.
+     */
+    private RequestDeadline resolveDeadline(MessageContext messageContext, String apiKey) {
+        Long apiTimeoutMillis = config.getRequestTimeoutApiMillis().get(apiKey);
+        long timeoutMillis = apiTimeoutMillis != null ? apiTimeoutMillis : config.getRequestTimeoutMillis();
+        long clientTimeoutMillis = getClientTimeoutMillis(messageContext);
+        if (clientTimeoutMillis > 0 && (timeoutMillis <= 0 || clientTimeoutMillis < timeoutMillis)) {
+            timeoutMillis = clientTimeoutMillis;
+        }
+        return RequestDeadline.after(timeoutMillis);
+    }
+
+    private long getClientTimeoutMillis(MessageContext messageContext) {
+        String headerName = config.getRequestTimeoutHeader();
+        if (headerName == null || headerName.isEmpty() || !(messageContext instanceof Axis2MessageContext)) {
+            return -1;
+        }
+        Object headers = ((Axis2MessageContext) messageContext).getAxis2MessageContext()
+                .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+        Object value = headers instanceof Map ? ((Map<?, ?>) headers).get(headerName) : null;
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring invalid " + headerName + " header: " + value);
+            return -1;
+        }
+    }
+
+    /**
+     * Answers a request whose deadline passed before Mistral answered with a gateway timeout.
+     */
+    private boolean rejectExpiredRequest(MessageContext messageContext) {
+        log.warn("Request deadline passed before Mistral answered, rejecting request");
+        messageContext.setProperty(APIConstants.AIAPIConstants.TARGET_ENDPOINT,
+                                 APIConstants.AIAPIConstants.REJECT_ENDPOINT);
+        if (messageContext instanceof Axis2MessageContext) {
+            ((Axis2MessageContext) messageContext).getAxis2MessageContext()
+                    .setProperty(org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants.HTTP_SC, 504);
+        }
+        return true;
+    }
+
+    /**
+     * Removes user-specified model from the request payload and forces the backend's model.
+     */
+    private void removeUserModelFromRequest(MessageContext messageContext, TransformRequest transformRequest,
+                                            LlmBackend backend) {
         try {
             org.apache.axis2.context.MessageContext axis2MessageContext = 
                 ((Axis2MessageContext) messageContext).getAxis2MessageContext();
-            
-            if (JsonUtil.hasAJsonPayload(axis2MessageContext)) {
-                String jsonPayload = JsonUtil.jsonPayloadToString(axis2MessageContext);
-                if (jsonPayload != null) {
-                    // Parse and modify the JSON to force our hardcoded model
-                    Gson gson = new Gson();
-                    Map<String, Object> payload = gson.fromJson(jsonPayload, Map.class);
-                    
-                    // Remove user-specified model and set our hardcoded model
-                    payload.put("model", HARDCODED_MODEL);
-                    
-                    // Update the payload back to message context
-                    String modifiedPayload = gson.toJson(payload);
-                    JsonUtil.removeJsonPayload(axis2MessageContext);
-                    JsonUtil.getNewJsonPayload(axis2MessageContext, modifiedPayload, true, true);
-                    
-                    if (log.isDebugEnabled()) {
-                        log.debug("Replaced user model with hardcoded Mistral model: " + HARDCODED_MODEL);
-                    }
-                }
+
+            // Splice the backend's model into the raw payload and update it back to message context
+            InputStream modifiedPayload = transformRequest.rewriteModel(backend.getModel());
+            JsonUtil.removeJsonPayload(axis2MessageContext);
+            JsonUtil.getNewJsonPayload(axis2MessageContext, modifiedPayload, true, true);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Replaced user model with " + backend.getName() + " model: " + backend.getModel());
             }
         } catch (Exception e) {
             log.warn("Error removing user model from request: " + e.getMessage());
@@ -145,18 +315,29 @@ public class TransformMediator extends AbstractMediator implements ManagedLifecy
     }
 
     /**
-     * Extracts user request content from the message payload.
+     * Builds the message and parses its JSON payload once for all later stages.
      */
-    private String extractUserRequestContent(MessageContext messageContext) {
+    private TransformRequest parseUserRequest(MessageContext messageContext, StageMetrics stages) {
         try {
             org.apache.axis2.context.MessageContext axis2MessageContext = 
                 ((Axis2MessageContext) messageContext).getAxis2MessageContext();
             
+            long buildStart = System.nanoTime();
             RelayUtils.buildMessage(axis2MessageContext);
+            stages.record(StageMetrics.Stage.BUILD_MESSAGE, buildStart);
 
             if (JsonUtil.hasAJsonPayload(axis2MessageContext)) {
-                String jsonPayload = JsonUtil.jsonPayloadToString(axis2MessageContext);
-                return jsonPayload != null ? extractContentFromJsonPayload(jsonPayload) : null;
+                TransformEvents.PayloadParse parseEvent = new TransformEvents.PayloadParse();
+                parseEvent.begin();
+                long parseStart = System.nanoTime();
+                byte[] jsonPayload = JsonUtil.jsonPayloadToByteArray(axis2MessageContext);
+                TransformRequest transformRequest = jsonPayload != null ? TransformRequest.parse(jsonPayload) : null;
+                stages.record(StageMetrics.Stage.PARSE, parseStart);
+                if (parseEvent.shouldCommit()) {
+                    parseEvent.payloadBytes = jsonPayload != null ? jsonPayload.length : 0;
+                    parseEvent.commit();
+                }
+                return transformRequest;
             }
             return null;
         } catch (Exception e) {
@@ -166,71 +347,92 @@ public class TransformMediator extends AbstractMediator implements ManagedLifecy
     }
 
     /**
-     * Extracts content from JSON payload using a priority-based approach.
+     * Routes the request to the backend's service and sets up AIAPIMediator integration.
      */
-    private String extractContentFromJsonPayload(String jsonPayload) {
+    private boolean routeToMistralService(MessageContext messageContext, TransformRequest transformRequest,
+                                          String apiKey, RequestDeadline deadline, MistralService mistralService,
+                                          StageMetrics stages) {
         try {
-            Gson gson = new Gson();
-            Map<String, Object> payload = gson.fromJson(jsonPayload, Map.class);
-            
-            // Priority order: messages > prompt > input
-            String[] keys = {"messages", "prompt", "input"};
-            for (String key : keys) {
-                if (payload.containsKey(key)) {
-                    Object value = payload.get(key);
-                    if ("messages".equals(key) && value instanceof java.util.List) {
-                        return extractFromMessagesList((java.util.List<?>) value);
-                    } else if (value != null) {
-                        return value.toString();
-                    }
-                }
+            String userContent = transformRequest.getUserContent();
+            if (log.isDebugEnabled()) {
+                log.debug("Routing to Mistral service with user content: " + 
+                         userContent.substring(0, Math.min(100, userContent.length())));
             }
-            return null;
-        } catch (Exception e) {
-            log.warn("Error parsing JSON payload for content extraction: " + e.getMessage());
-            return null;
-        }
-    }
 
-    private String extractFromMessagesList(java.util.List<?> messages) {
-        if (!messages.isEmpty()) {
-            Object lastMessage = messages.get(messages.size() - 1);
-            if (lastMessage instanceof Map) {
-                Map<String, Object> messageMap = (Map<String, Object>) lastMessage;
-                if (messageMap.containsKey("content")) {
-                    return messageMap.get("content").toString();
+            // Serve repeated identical requests from the response cache, even while Mistral is unavailable
+            String cacheKey = getResponseCacheKey(transformRequest, apiKey, mistralService);
+            TransformEvents.ResponseCacheLookup cacheEvent = new TransformEvents.ResponseCacheLookup();
+            cacheEvent.begin();
+            String cachedResponse = cacheKey != null ? responseCache.get(cacheKey) : null;
+            if (cacheKey != null && cacheEvent.shouldCommit()) {
+                cacheEvent.api = apiKey;
+                cacheEvent.hit = cachedResponse != null;
+                cacheEvent.commit();
+            }
+            if (cachedResponse != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Serving Mistral response from the response cache");
                 }
+                setupAIAPIMediatorIntegration(messageContext, cachedResponse, userContent,
+                        mistralService.getBackend(), stages, null);
+                return true;
             }
-        }
-        return null;
-    }
 
-    /**
-     * Routes the request to hardcoded Mistral service and sets up AIAPIMediator integration.
-     */
-    private boolean routeToMistralService(MessageContext messageContext, String userContent) {
-        try {
-            if (log.isDebugEnabled()) {
-                log.debug("Routing to Mistral service with user content: " + 
-                         userContent.substring(0, Math.min(100, userContent.length())));
+            if (deadline.isExpired()) {
+                return rejectExpiredRequest(messageContext);
             }
 
-            MistralService mistralService = new MistralService();
-            
-            // Check if Mistral service is available
-            if (!mistralService.isServiceAvailable()) {
+            // Fail fast on the cached probe result and circuit breaker state instead of probing Mistral inline
+            long checkStart = System.nanoTime();
+            boolean callPermitted = mistralService.isCallPermitted();
+            stages.record(StageMetrics.Stage.AVAILABILITY_CHECK, checkStart);
+            if (!callPermitted) {
                 log.warn("Mistral service is not available");
                 messageContext.setProperty(APIConstants.AIAPIConstants.TARGET_ENDPOINT, 
                                          APIConstants.AIAPIConstants.REJECT_ENDPOINT);
                 return true;
             }
 
+            // The tenant is only known on the mediation thread, so the account is fixed before any callback runs
+            TokenUsageRecorder.Account usageAccount = tokenUsage != null ? new TokenUsageRecorder.Account(
+                    GatewayUtils.getTenantDomain(), apiKey, mistralService.getBackend().getModel()) : null;
+            // Usage is charged only by the request that made the upstream call, not by those sharing its response
+            AtomicBoolean calledUpstream = new AtomicBoolean();
+            Consumer<String> onUpstreamResponse = usageAccount != null ? response -> calledUpstream.set(true) : null;
+
+            // Suspend this flow and resume it from the callback when an async resume sequence is configured
+            SequenceMediator resumeSequence = getAsyncResumeSequence(messageContext);
+            if (transformRequest.isStreamRequested()) {
+                return routeStreamToMistralService(messageContext, userContent, resumeSequence, deadline,
+                        mistralService, stages);
+            }
+            long upstreamStart = System.nanoTime();
+            if (resumeSequence != null) {
+                // Virtual-thread mode keeps the blocking client but still frees this worker while Mistral answers
+                CompletableFuture<String> upstreamCall = config.isVirtualThreadsEnabled()
+                        ? mistralService.submitFullJsonResponse(userContent, deadline, onUpstreamResponse)
+                        : mistralService.getFullJsonResponseAsync(userContent, deadline, onUpstreamResponse);
+                resumeAfter(upstreamCall, messageContext, resumeSequence, deadline, stages, upstreamStart,
+                        response -> {
+                            cacheResponse(cacheKey, apiKey, response);
+                            setupAIAPIMediatorIntegration(messageContext, response, userContent,
+                                    mistralService.getBackend(), stages, calledUpstream.get() ? usageAccount : null);
+                        });
+                return false;
+            }
+
             // Get full JSON response from Mistral instead of just parsed content
-            String fullJsonResponse = mistralService.getFullJsonResponse(userContent);
+            String fullJsonResponse = mistralService.getFullJsonResponse(userContent, deadline, onUpstreamResponse);
+            stages.record(StageMetrics.Stage.UPSTREAM, upstreamStart);
             
+            if (fullJsonResponse == null && deadline.isExpired()) {
+                return rejectExpiredRequest(messageContext);
+            }
             if (fullJsonResponse != null) {
+                cacheResponse(cacheKey, apiKey, fullJsonResponse);
                 // Set up context for AIAPIMediator to process the actual Mistral response
-                setupAIAPIMediatorIntegration(messageContext, fullJsonResponse, userContent);
+                setupAIAPIMediatorIntegration(messageContext, fullJsonResponse, userContent,
+                        mistralService.getBackend(), stages, calledUpstream.get() ? usageAccount : null);
                 return true;
             } else {
                 log.warn("No response received from Mistral service");
@@ -243,25 +445,159 @@ public class TransformMediator extends AbstractMediator implements ManagedLifecy
         }
     }
 
+    /**
+     * Returns the response cache key of the request, scoped to the API it was sent to, or {@code null} when the
+     * response must not be cached: the cache is disabled, the response is streamed, or the backend is not sent
+     * deterministic requests while only deterministic requests are cached. Both the key and the determinism
+     * follow the request the backend is actually sent, not the client's payload.
+     */
+    private String getResponseCacheKey(TransformRequest transformRequest, String apiKey,
+                                       MistralService mistralService) {
+        if (responseCache == null || transformRequest.isStreamRequested()
+                || (config.isResponseCacheDeterministicOnly() && !mistralService.isDeterministic())) {
+            return null;
+        }
+        return mistralService.getResponseCacheKey(apiKey, transformRequest.getUserContent());
+    }
+
+    private void cacheResponse(String cacheKey, String apiKey, String response) {
+        if (cacheKey != null) {
+            Long ttlSeconds = config.getResponseCacheApiTtlSeconds().get(apiKey);
+            long ttlMillis = (ttlSeconds != null ? ttlSeconds : config.getResponseCacheTtlSeconds()) * 1000;
+            if (ttlMillis > 0) {
+                responseCache.put(cacheKey, response, ttlMillis);
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence that continues mediation after an async Mistral call, or {@code null}
+     * when async mediation is not configured and the call should block the worker thread.
+     */
+    private SequenceMediator getAsyncResumeSequence(MessageContext messageContext) {
+        String sequenceName = config.getAsyncResumeSequence();
+        if (sequenceName == null || sequenceName.isEmpty()) {
+            return null;
+        }
+        Mediator sequence = messageContext.getSequence(sequenceName);
+        if (sequence instanceof SequenceMediator) {
+            return (SequenceMediator) sequence;
+        }
+        log.warn("Async resume sequence " + sequenceName + " not found, falling back to blocking mediation");
+        return null;
+    }
+
+    /**
+     * Relays Mistral's server-sent events to the client for {@code stream=true} requests. Only the response
+     * headers are awaited; the transport sender copies the chunks to the client as Mistral produces them.
+     */
+    private boolean routeStreamToMistralService(MessageContext messageContext, String userContent,
+                                                SequenceMediator resumeSequence, RequestDeadline deadline,
+                                                MistralService mistralService, StageMetrics stages) {
+        long upstreamStart = System.nanoTime();
+        CompletableFuture<InputStream> eventStream = mistralService.getStreamingResponseAsync(userContent, deadline);
+        if (resumeSequence != null) {
+            resumeAfter(eventStream, messageContext, resumeSequence, deadline, stages, upstreamStart,
+                    stream -> setupStreamingIntegration(messageContext, stream, userContent,
+                            mistralService.getBackend(), stages));
+            return false;
+        }
+        InputStream stream = eventStream.join();
+        stages.record(StageMetrics.Stage.UPSTREAM, upstreamStart);
+        if (stream == null) {
+            return rejectFailedCall(messageContext, deadline);
+        }
+        setupStreamingIntegration(messageContext, stream, userContent, mistralService.getBackend(), stages);
+        return true;
+    }
+
+    /**
+     * Routes a request whose Mistral call gave no response to the reject endpoint, answering with a gateway timeout
+     * when the request deadline has passed.
+     */
+    private boolean rejectFailedCall(MessageContext messageContext, RequestDeadline deadline) {
+        if (deadline.isExpired()) {
+            return rejectExpiredRequest(messageContext);
+        }
+        log.warn("No response received from Mistral service");
+        messageContext.setProperty(APIConstants.AIAPIConstants.TARGET_ENDPOINT,
+                                 APIConstants.AIAPIConstants.REJECT_ENDPOINT);
+        return true;
+    }
+
+    /**
+     * Applies the result of an async Mistral call and injects the message into the resume sequence. A failed
+     * call is routed to the reject endpoint so the client still gets an answer, a gateway timeout when the deadline
+     * has passed.
+     *
+     * @param upstreamStart {@link System#nanoTime()} when the call was started, for the upstream stage
+     */
+    <T> void resumeAfter(CompletableFuture<T> upstreamCall, MessageContext messageContext,
+                         SequenceMediator resumeSequence, RequestDeadline deadline, StageMetrics stages,
+                         long upstreamStart, Consumer<T> responseHandler) {
+        upstreamCall.whenComplete((response, error) -> {
+            stages.record(StageMetrics.Stage.UPSTREAM, upstreamStart);
+            try {
+                if (response != null) {
+                    responseHandler.accept(response);
+                } else {
+                    rejectFailedCall(messageContext, deadline);
+                }
+            } catch (Exception e) {
+                log.error("Error processing async Mistral response", e);
+            }
+            synapseEnvironment.injectAsync(messageContext, resumeSequence);
+        });
+    }
+
     /**
      * Sets up message context properties for AIAPIMediator integration.
      */
-    private void setupAIAPIMediatorIntegration(MessageContext messageContext, String mistralResponse, String userContent) {
-        ModelEndpointDTO mistralEndpoint = createMistralEndpoint();
+    private void setupAIAPIMediatorIntegration(MessageContext messageContext, String mistralResponse, String userContent,
+                                               LlmBackend backend, StageMetrics stages,
+                                               TokenUsageRecorder.Account usageAccount) {
+        ModelEndpointDTO mistralEndpoint = createEndpoint(backend);
         setLLMRouteConfigs(messageContext, mistralEndpoint);
         setSuccessStatus(messageContext);
-        updateMessageBody(messageContext, mistralResponse);
-        setDebugProperties(messageContext, mistralResponse, userContent);
+        long rebuildStart = System.nanoTime();
+        // Encoded once for both the usage scan and the new payload
+        byte[] responseBody = mistralResponse.getBytes(StandardCharsets.UTF_8);
+        if (usageAccount != null) {
+            tokenUsage.record(usageAccount, responseBody);
+        }
+        updateMessageBody(messageContext, responseBody);
+        stages.record(StageMetrics.Stage.RESPONSE_REBUILD, rebuildStart);
+        setDebugProperties(messageContext, mistralResponse, userContent, backend.getModel());
         
         if (log.isDebugEnabled()) {
-            log.debug("Set up AIAPIMediator integration for Mistral model: " + HARDCODED_MODEL);
+            log.debug("Set up AIAPIMediator integration for " + backend.getName() + " model: " + backend.getModel());
+        }
+    }
+
+    /**
+     * Sets up message context properties for AIAPIMediator integration with a streamed Mistral response.
+     */
+    private void setupStreamingIntegration(MessageContext messageContext, InputStream eventStream, String userContent,
+                                           LlmBackend backend, StageMetrics stages) {
+        ModelEndpointDTO mistralEndpoint = createEndpoint(backend);
+        setLLMRouteConfigs(messageContext, mistralEndpoint);
+        setSuccessStatus(messageContext);
+        long rebuildStart = System.nanoTime();
+        try {
+            updateMessageBodyWithStream(messageContext, eventStream);
+        } catch (Exception e) {
+            closeQuietly(eventStream);
+            log.error("Failed to update message body with Mistral event stream", e);
         }
+        stages.record(StageMetrics.Stage.RESPONSE_REBUILD, rebuildStart);
+        messageContext.setProperty("TRANSFORM_USER_CONTENT", userContent);
+        messageContext.setProperty("TRANSFORM_MODEL_USED", backend.getModel());
     }
 
-    private ModelEndpointDTO createMistralEndpoint() {
+    private ModelEndpointDTO createEndpoint(LlmBackend backend) {
         ModelEndpointDTO endpoint = new ModelEndpointDTO();
-        endpoint.setModel(HARDCODED_MODEL);
-        endpoint.setEndpointId("mistral_transform_endpoint");
+        endpoint.setModel(backend.getModel());
+        endpoint.setEndpointId(backend.getName() + "_transform_endpoint");
         return endpoint;
     }
 
@@ -281,7 +617,7 @@ public class TransformMediator extends AbstractMediator implements ManagedLifecy
         }
     }
 
-    private void updateMessageBody(MessageContext messageContext, String mistralResponse) {
+    private void updateMessageBody(MessageContext messageContext, byte[] mistralResponse) {
         try {
             updateMessageBodyWithResponse(messageContext, mistralResponse);
             if (log.isDebugEnabled()) {
@@ -292,24 +628,25 @@ public class TransformMediator extends AbstractMediator implements ManagedLifecy
         }
     }
 
-    private void setDebugProperties(MessageContext messageContext, String mistralResponse, String userContent) {
+    private void setDebugProperties(MessageContext messageContext, String mistralResponse, String userContent,
+                                    String model) {
         messageContext.setProperty("TRANSFORM_MISTRAL_RESPONSE", mistralResponse);
         messageContext.setProperty("TRANSFORM_USER_CONTENT", userContent);
-        messageContext.setProperty("TRANSFORM_MODEL_USED", HARDCODED_MODEL);
+        messageContext.setProperty("TRANSFORM_MODEL_USED", model);
     }
 
     /**
      * Updates the message body with the actual Mistral JSON response.
      * This passes through the real API response instead of creating a synthetic one.
      */
-    private void updateMessageBodyWithResponse(MessageContext messageContext, String mistralJsonResponse) throws Exception {
+    private void updateMessageBodyWithResponse(MessageContext messageContext, byte[] mistralJsonResponse) throws Exception {
         if (messageContext instanceof org.apache.synapse.core.axis2.Axis2MessageContext) {
             org.apache.axis2.context.MessageContext axis2MessageContext = 
                 ((org.apache.synapse.core.axis2.Axis2MessageContext) messageContext).getAxis2MessageContext();
             
             // Update the message body with the actual Mistral JSON response (same as McpMediator)
             JsonUtil.removeJsonPayload(axis2MessageContext);
-            JsonUtil.getNewJsonPayload(axis2MessageContext, mistralJsonResponse, true, true);
+            JsonUtil.getNewJsonPayload(axis2MessageContext, new ByteArrayInputStream(mistralJsonResponse), true, true);
             
             // Set proper content type properties 
             axis2MessageContext.setProperty(org.apache.axis2.Constants.Configuration.MESSAGE_TYPE, 
@@ -323,6 +660,41 @@ public class TransformMediator extends AbstractMediator implements ManagedLifecy
         }
     }
 
+    /**
+     * Replaces the message body with a binary payload over the live Mistral event stream. The binary formatter
+     * writes it to the client chunk by chunk, so the full answer is never held in memory.
+     */
+    private void updateMessageBodyWithStream(MessageContext messageContext, InputStream eventStream) throws Exception {
+        if (messageContext instanceof org.apache.synapse.core.axis2.Axis2MessageContext) {
+            org.apache.axis2.context.MessageContext axis2MessageContext = 
+                ((org.apache.synapse.core.axis2.Axis2MessageContext) messageContext).getAxis2MessageContext();
+
+            JsonUtil.removeJsonPayload(axis2MessageContext);
+            OMFactory factory = OMAbstractFactory.getOMFactory();
+            OMElement binaryPayload = factory.createOMElement(BINARY_PAYLOAD_QNAME);
+            binaryPayload.addChild(factory.createOMText(
+                    new EventStreamDataSource(eventStream).newDataHandler(), true));
+            axis2MessageContext.getEnvelope().getBody().addChild(binaryPayload);
+
+            axis2MessageContext.setProperty(org.apache.axis2.Constants.Configuration.MESSAGE_TYPE, 
+                    "application/octet-stream");
+            axis2MessageContext.setProperty(org.apache.axis2.Constants.Configuration.CONTENT_TYPE, 
+                    EventStreamDataSource.CONTENT_TYPE);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Updated message body with Mistral event stream");
+            }
+        }
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            log.debug("Error closing Mistral event stream", e);
+        }
+    }
+
     @Override
     public boolean isContentAware() {
         return true; // We need to read the message content
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request-scoped parsed form of the client payload. It is parsed once after the message is built and shared by
+ * content extraction, the model rewrite and the payload rebuild, so no stage re-reads or re-parses the body.
+ * The raw bytes are kept as well, so the model rewrite can splice them instead of re-serializing the tree.
+ */
+final class TransformRequest {
+
+    // Priority order: messages > prompt > input
+    private static final String[] CONTENT_KEYS = {"messages", "prompt", "input"};
+
+    private final byte[] rawPayload;
+    private final JsonObject payload;
+    private String userContent;
+    private boolean userContentExtracted;
+
+    private TransformRequest(byte[] rawPayload, JsonObject payload) {
+        this.rawPayload = rawPayload;
+        this.payload = payload;
+    }
+
+    /**
+     * Parses the client payload.
+     *
+     * @param rawPayload The UTF-8 JSON payload of the request
+     * @return The parsed request
+     * @throws JsonSyntaxException If the payload is not a JSON object
+     */
+    static TransformRequest parse(byte[] rawPayload) {
+        JsonElement element = JsonParser.parseReader(
+                new InputStreamReader(new ByteArrayInputStream(rawPayload), StandardCharsets.UTF_8));
+        if (!element.isJsonObject()) {
+            throw new JsonSyntaxException("Request payload is not a JSON object");
+        }
+        return new TransformRequest(rawPayload, element.getAsJsonObject());
+    }
+
+    /**
+     * Returns the user content using a priority-based approach, or {@code null} when there is none.
+     */
+    String getUserContent() {
+        if (!userContentExtracted) {
+            userContent = extractContent();
+            userContentExtracted = true;
+        }
+        return userContent;
+    }
+
+    boolean isStreamRequested() {
+        JsonElement stream = payload.get("stream");
+        return stream != null && stream.isJsonPrimitive() && stream.getAsJsonPrimitive().isBoolean()
+                && stream.getAsBoolean();
+    }
+
+    /**
+     * Forces the given model and returns the rewritten payload. The top-level {@code model} value is spliced into
+     * the raw bytes, which are scanned but neither parsed nor copied. The tree is serialized instead when the raw
+     * bytes cannot be scanned, or when a duplicate or escaped key could leave the client's own model in force.
+     */
+    InputStream rewriteModel(String model) {
+        payload.addProperty("model", model);
+        byte[] encodedModel = new JsonPrimitive(model).toString().getBytes(StandardCharsets.UTF_8);
+        InputStream rewritten = JsonFieldSplicer.replaceTopLevelValue(rawPayload, "model", encodedModel);
+        return rewritten != null ? rewritten
+                : new ByteArrayInputStream(payload.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String extractContent() {
+        for (String key : CONTENT_KEYS) {
+            if (payload.has(key)) {
+                JsonElement value = payload.get(key);
+                if ("messages".equals(key) && value.isJsonArray()) {
+                    return extractFromMessagesList(value.getAsJsonArray());
+                } else if (!value.isJsonNull()) {
+                    return asText(value);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String extractFromMessagesList(JsonArray messages) {
+        if (messages.size() > 0) {
+            JsonElement lastMessage = messages.get(messages.size() - 1);
+            if (lastMessage.isJsonObject()) {
+                JsonElement content = lastMessage.getAsJsonObject().get("content");
+                if (content != null && !content.isJsonNull()) {
+                    return asText(content);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String asText(JsonElement value) {
+        return value.isJsonPrimitive() ? value.getAsString() : value.toString();
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Client-side token bucket that learns the upstream quota from rate-limit response headers. Request budgets pace
+ * outgoing calls so they stay just under the quota, refilling the used requests by the reported reset, or over a
+ * minute when no reset is reported. A 429 holds every call for its {@code Retry-After}, which may be 0, or for a
+ * second when it has none. The token budget is a hard stop rather than paced, since what a call costs is only known
+ * from its response: calls go out freely while tokens remain, and once the server reports none left they are held
+ * until the reported reset or, when no reset is reported, for a second before one is let through to learn the new
+ * budget. Calls that would have to wait longer than the pacing budget are rejected at once instead of being sent
+ * to certain rejection.
+ */
+final class UpstreamRateLimiter {
+
+    private static final Log log = LogFactory.getLog(UpstreamRateLimiter.class);
+
+    private static final long DEFAULT_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long DEFAULT_RETRY_AFTER_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private final long maxDelayNanos;
+
+    // Unknown until the first response carrying request rate-limit headers
+    private double availableRequests = Double.NaN;
+    private double requestCapacity;
+    private double requestsPerNano;
+    private long lastRefillNanos;
+
+    private long remainingTokens = -1;
+    private long tokensResetAtNanos;
+    private long blockedUntilNanos;
+
+    UpstreamRateLimiter(long maxDelayMillis) {
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    }
+
+    /**
+     * Reserves one request.
+     *
+     * @return Nanoseconds the caller must wait before sending, or -1 when that would exceed the pacing budget and
+     *         the call should not be sent
+     */
+    synchronized long reserve() {
+        return reserve(maxDelayNanos);
+    }
+
+    /**
+     * Reserves one request only if it can be sent right away, for optional calls that should rather be skipped.
+     */
+    synchronized boolean tryReserve() {
+        return reserve(0) == 0;
+    }
+
+    private long reserve(long maxWaitNanos) {
+        long now = System.nanoTime();
+        long waitNanos = Math.max(0, blockedUntilNanos - now);
+        if (remainingTokens == 0 && tokensResetAtNanos - now > 0) {
+            waitNanos = Math.max(waitNanos, tokensResetAtNanos - now);
+        }
+        boolean reservedRequest = false;
+        if (!Double.isNaN(availableRequests)) {
+            refill(now);
+            availableRequests -= 1;
+            reservedRequest = true;
+            if (availableRequests < 0) {
+                waitNanos = Math.max(waitNanos, (long) (-availableRequests / requestsPerNano));
+            }
+        }
+        if (waitNanos > maxWaitNanos) {
+            if (reservedRequest) {
+                availableRequests += 1;
+            }
+            return -1;
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Learns the current quota from a response.
+     *
+     * @param header     Looks up a response header by name, returning {@code null} when it is absent
+     * @param statusCode HTTP status of the response
+     */
+    synchronized void onResponse(Function<String, String> header, int statusCode) {
+        long now = System.nanoTime();
+        long requestLimit = parseLong(header.apply("x-ratelimit-limit-requests"));
+        long requestsLeft = parseLong(header.apply("x-ratelimit-remaining-requests"));
+        if (requestLimit > 0 && requestsLeft >= 0) {
+            refill(now);
+            requestCapacity = requestLimit;
+            long resetNanos = parseDurationNanos(header.apply("x-ratelimit-reset-requests"));
+            if (resetNanos > 0 && requestLimit > requestsLeft) {
+                // The requests used so far are back in full by the reported reset
+                requestsPerNano = (double) (requestLimit - requestsLeft) / resetNanos;
+            } else if (resetNanos < 0 || requestsPerNano == 0) {
+                requestsPerNano = (double) requestLimit / DEFAULT_WINDOW_NANOS;
+            }
+            // Keep one request in reserve so that concurrent senders stay just under the quota
+            double serverView = requestsLeft - 1;
+            availableRequests = Double.isNaN(availableRequests) ? serverView : Math.min(availableRequests, serverView);
+        }
+
+        long tokensLeft = parseLong(firstNonNull(header.apply("x-ratelimit-remaining-tokens"),
+                header.apply("x-ratelimitbysize-remaining-minute")));
+        if (tokensLeft >= 0) {
+            remainingTokens = tokensLeft;
+            long resetNanos = parseDurationNanos(header.apply("x-ratelimit-reset-tokens"));
+            // Without a reset time the window is unknown, so hold briefly and let the next response tell
+            tokensResetAtNanos = now + (resetNanos > 0 ? resetNanos : DEFAULT_RETRY_AFTER_NANOS);
+        }
+
+        if (statusCode == 429) {
+            long retryAfterNanos = parseRetryAfterNanos(header.apply("Retry-After"));
+            blockedUntilNanos = now + (retryAfterNanos >= 0 ? retryAfterNanos : DEFAULT_RETRY_AFTER_NANOS);
+            if (log.isDebugEnabled()) {
+                log.debug("Upstream rate limit hit, holding calls for "
+                        + TimeUnit.NANOSECONDS.toMillis(blockedUntilNanos - now) + " ms");
+            }
+        }
+    }
+
+    private void refill(long now) {
+        if (!Double.isNaN(availableRequests)) {
+            availableRequests = Math.min(requestCapacity,
+                    availableRequests + (now - lastRefillNanos) * requestsPerNano);
+        }
+        lastRefillNanos = now;
+    }
+
+    private static String firstNonNull(String first, String second) {
+        return first != null ? first : second;
+    }
+
+    static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses a reset duration such as {@code 20ms}, {@code 1s}, {@code 6m0s} or a plain number of seconds.
+     */
+    static long parseDurationNanos(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            return (long) (Double.parseDouble(trimmed) * TimeUnit.SECONDS.toNanos(1));
+        } catch (NumberFormatException e) {
+            // Not a plain number of seconds
+        }
+        Matcher matcher = DURATION_PART.matcher(trimmed);
+        double nanos = 0;
+        boolean matched = false;
+        while (matcher.find()) {
+            matched = true;
+            double amount = Double.parseDouble(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "h":
+                    nanos += amount * TimeUnit.HOURS.toNanos(1);
+                    break;
+                case "m":
+                    nanos += amount * TimeUnit.MINUTES.toNanos(1);
+                    break;
+                case "s":
+                    nanos += amount * TimeUnit.SECONDS.toNanos(1);
+                    break;
+                default:
+                    nanos += amount * TimeUnit.MILLISECONDS.toNanos(1);
+            }
+        }
+        return matched ? (long) nanos : -1;
+    }
+
+    /**
+     * Parses {@code Retry-After}, given either in seconds or as an HTTP date; a date in the past gives 0.
+     */
+    static long parseRetryAfterNanos(String value) {
+        long nanos = parseDurationNanos(value);
+        if (nanos >= 0 || value == null) {
+            return nanos;
+        }
+        try {
+            ZonedDateTime retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0,
+                    retryAt.toInstant().toEpochMilli() - System.currentTimeMillis()));
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -1,51 +1,283 @@
 package org.wso2.carbon.apimgt.gateway.mediators;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
-import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
+import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.net.URL;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
- * Service class for interacting with Mistral LLM API for request classification.
+ * Service class for interacting with an LLM backend, Mistral by default, for request classification.
+ * Owns a pooled keep-alive HTTP client, so an instance is meant to be long-lived and closed when done.
+ * Each backend gets its own instance, and with it its own connection pool, resilience state and metrics.
  */
-public class MistralService {
-    
+public class MistralService implements Closeable {
+
     private static final Log log = LogFactory.getLog(MistralService.class);
     
-    private static final String MISTRAL_API_URL = "https://api.mistral.ai/v1/chat/completions";
-    private static final String MISTRAL_API_KEY = "#";
-    private static final String MISTRAL_MODEL = "mistral-large-latest";
+    private static final String BATCH_INSTRUCTIONS = "You will receive a JSON object with an \"inputs\" array. "
+            + "Handle each input independently, exactly as if it were the only user message, and reply with a JSON "
+            + "object of the form {\"results\": [...]} holding one string answer per input, in the same order.";
+
+    private final LlmBackend backend;
+    private final BackendMetrics metrics;
+    private final LoadBalancer loadBalancer;
+    private final CloseableHttpClient httpClient;
+    private final ExecutorService asyncExecutor;
+    private final ExecutorService blockingExecutor;
+    private final Semaphore blockingCallPermits;
+    private final long blockingCallQueueTimeoutMillis;
+    private final HttpClient asyncHttpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final HealthProber healthProber;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final long concurrencyLimitQueueTimeoutMillis;
+    private final ApiKeyPool keyPool;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+    private final long connectTimeoutMillis;
+    private final long connectionRequestTimeoutMillis;
+    private final long readTimeoutMillis;
+    private final long coalescingWaitTimeoutMillis;
+    private final double completionTemperature;
+    private final RequestHedger hedger;
+    private final RequestCoalescer<String> coalescer;
+    private final boolean classificationBatchingEnabled;
+    private final ClassificationBatcher classificationBatcher;
+    private final long classificationWaitMillis;
+    private final StageMetrics stages;
+    private final Map<String, StageMetrics> endpointStages = new HashMap<>();
+
+    public MistralService() {
+        this(new TransformConfig());
+    }
+
+    public MistralService(TransformConfig config) {
+        this(config, new MistralBackend(new TransformConfig.BackendConfig()));
+    }
+
+    public MistralService(TransformConfig config, LlmBackend backend) {
+        this.backend = backend;
+        this.loadBalancer = new LoadBalancer(backend.getCompletionsUrls(), config);
+        this.metrics = new BackendMetrics(backend.getName(), loadBalancer::getWeights);
+        metrics.register();
+        this.httpClient = createHttpClient(config, createConnectionManager(config));
+        this.asyncExecutor = Executors.newFixedThreadPool(config.getAsyncIoThreads(), createAsyncThreadFactory());
+        this.asyncHttpClient = GatewayHttpClients.newJdkClientBuilder()
+                .executor(asyncExecutor)
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeoutMillis()))
+                .build();
+        this.blockingExecutor = config.isVirtualThreadsEnabled() ? createBlockingExecutor() : null;
+        int maxBlockingCalls = config.getVirtualThreadMaxConcurrency() > 0
+                ? config.getVirtualThreadMaxConcurrency() : config.getMaxConnectionsPerRoute();
+        // Per service, like the connection pool whose per-route limit it defaults to
+        this.blockingCallPermits = config.isVirtualThreadsEnabled() ? new Semaphore(maxBlockingCalls, true) : null;
+        this.blockingCallQueueTimeoutMillis = config.getVirtualThreadQueueTimeoutMillis();
+        this.circuitBreaker = new CircuitBreaker(backend.getCompletionsUrl(), config);
+        this.healthProber = config.isHealthProbeEnabled() && backend.getHealthCheckUrl() != null
+                ? HealthProber.acquire(backend.getHealthCheckUrl(), backend.getCredentials(), config) : null;
+        this.concurrencyLimiter = config.isConcurrencyLimitEnabled() ? new AdaptiveConcurrencyLimiter(config) : null;
+        this.concurrencyLimitQueueTimeoutMillis = config.getConcurrencyLimitQueueTimeoutMillis();
+        this.keyPool = new ApiKeyPool(backend.getCredentials(), config);
+        this.maxRetries = Math.max(0, config.getUpstreamMaxRetries());
+        this.retryBackoffMillis = config.getUpstreamRetryBackoffMillis();
+        this.connectTimeoutMillis = config.getConnectTimeoutMillis();
+        this.connectionRequestTimeoutMillis = config.getConnectionRequestTimeoutMillis();
+        this.readTimeoutMillis = config.getReadTimeoutMillis();
+        this.coalescingWaitTimeoutMillis = config.getCoalescingWaitTimeoutMillis();
+        this.completionTemperature = config.getCompletionTemperature();
+        this.hedger = config.isHedgingEnabled() ? new RequestHedger(config) : null;
+        this.coalescer = config.isRequestCoalescingEnabled()
+                ? new RequestCoalescer<>(config.getCoalescingMaxWaiters(), config.getCoalescingWaitTimeoutMillis())
+                : null;
+        this.classificationBatchingEnabled = config.isClassificationBatchingEnabled();
+        this.classificationBatcher = new ClassificationBatcher(config.getClassificationBatchWindowMillis(),
+                config.getClassificationBatchMaxSize(), this::classifyBatchAsync, this::parseBatchResponse,
+                this::classifySingleAsync);
+        // A batch and its fallback to single calls may each wait out the read timeout
+        this.classificationWaitMillis = config.getClassificationBatchWindowMillis() + 2 * readTimeoutMillis;
+        this.stages = StageMetrics.forRoute(null, backend.getName(), null, config);
+        for (String url : backend.getCompletionsUrls()) {
+            endpointStages.computeIfAbsent(url, endpoint -> StageMetrics.forRoute(null, backend.getName(), endpoint,
+                    config));
+        }
+    }
 
     public String classifyRequest(String prompt) {
-        return executeWithErrorHandling(() -> executeRequest(createHttpClient(), createHttpRequest(prompt)));
+        if (classificationBatchingEnabled) {
+            return executeWithErrorHandling(() -> classificationBatcher.submit(GatewayUtils.getTenantDomain(), null,
+                    prompt).get(classificationWaitMillis, TimeUnit.MILLISECONDS));
+        }
+        return executeWithErrorHandling(() -> executeRequest(buildRequestPayload(prompt)));
     }
 
     public String classifyRequestWithSystemPrompt(String systemPrompt, String userPrompt) {
-        return executeWithErrorHandling(() -> executeRequest(createHttpClient(), createHttpRequestWithSystemPrompt(systemPrompt, userPrompt)));
+        if (classificationBatchingEnabled) {
+            return executeWithErrorHandling(() -> classificationBatcher.submit(GatewayUtils.getTenantDomain(),
+                    systemPrompt, userPrompt).get(classificationWaitMillis, TimeUnit.MILLISECONDS));
+        }
+        return executeWithErrorHandling(() -> executeRequest(buildRequestPayloadWithSystemPrompt(systemPrompt, userPrompt)));
     }
 
+    /**
+     * Classifies several prompts with as few completions as possible, packing them into structured-output
+     * batches. The answers are in prompt order, with {@code null} for prompts that could not be classified.
+     */
+    public List<String> classifyRequests(List<String> prompts) {
+        return classifyRequestsWithSystemPrompt(null, prompts);
+    }
+
+    public List<String> classifyRequestsWithSystemPrompt(String systemPrompt, List<String> userPrompts) {
+        try {
+            return classificationBatcher.classifyAll(systemPrompt, userPrompts)
+                    .get(classificationWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Error calling Mistral API: " + e.getMessage());
+            return new ArrayList<>(Collections.nCopies(userPrompts.size(), (String) null));
+        }
+    }
+
+    public LlmBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Tells whether the completions this service sends use greedy decoding, so identical prompts get identical
+     * answers.
+     */
+    public boolean isDeterministic() {
+        return completionTemperature == 0;
+    }
+
+    /**
+     * Returns the response cache key of a prompt: a SHA-256 hash of the scope, the backend and the completion
+     * request sent for the prompt. That request is built with a fixed field order and carries nothing of the client
+     * payload but the prompt, so every client sending the same prompt shares one entry.
+     *
+     * @param scope Scope the key is valid in, such as the API the request was sent to
+     * @return Hex-encoded hash
+     */
+    public String getResponseCacheKey(String scope, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{String.valueOf(scope), backend.getName(), buildRequestPayload(prompt)}) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder hash = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hash.append(Character.forDigit((b >> 4) & 15, 16)).append(Character.forDigit(b & 15, 16));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to hash request payload", e);
+        }
+    }
+
+    /**
+     * Tells whether Mistral is reachable. With the background prober enabled this returns its latest result
+     * without any I/O; otherwise a health-check completion is sent.
+     */
     public boolean isServiceAvailable() {
+        return isServiceAvailable(RequestDeadline.NONE);
+    }
+
+    /**
+     * Like {@link #isServiceAvailable()}, but an inline health check is bounded by the request deadline and is
+     * skipped, reporting Mistral as unavailable, once the deadline has passed.
+     */
+    public boolean isServiceAvailable(RequestDeadline deadline) {
+        if (healthProber != null) {
+            return healthProber.isAvailable();
+        }
+        if (deadline.isExpired()) {
+            return false;
+        }
         try {
-            HttpClient httpClient = createHttpClient();
             HttpPost httpPost = createHealthCheckRequest();
-            return executeHealthCheck(httpClient, httpPost);
+            applyDeadline(httpPost, deadline);
+            return executeHealthCheck(httpPost, deadline);
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * Tells whether a call to Mistral should be attempted, based on the latest background probe and on the
+     * circuit breaker fed by recent real calls. Nothing is sent upstream.
+     */
+    public boolean isCallPermitted() {
+        return (healthProber == null || healthProber.isAvailable()) && circuitBreaker.isCallPermitted();
+    }
+
+    /**
+     * Closes the pooled HTTP client and all connections it keeps alive, stops the async I/O threads and
+     * unregisters the backend's metrics and stage latencies.
+     */
+    @Override
+    public void close() {
+        metrics.unregister();
+        stages.release();
+        for (StageMetrics endpoint : endpointStages.values()) {
+            endpoint.release();
+        }
+        classificationBatcher.shutdown();
+        if (healthProber != null) {
+            HealthProber.release(healthProber);
+        }
+        asyncExecutor.shutdownNow();
+        if (blockingExecutor != null) {
+            blockingExecutor.shutdownNow();
+        }
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("Error closing Mistral HTTP client: " + e.getMessage());
+        }
+    }
+
     private String executeWithErrorHandling(ThrowingSupplier<String> operation) {
         try {
             return operation.get();
@@ -60,30 +292,80 @@ public class MistralService {
         T get() throws Exception;
     }
 
-    private HttpClient createHttpClient() {
+    private static PoolingHttpClientConnectionManager createConnectionManager(TransformConfig config) {
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(
+                GatewayHttpClients.socketFactoryRegistry(), null, null, null, config.getKeepAliveMillis(),
+                TimeUnit.MILLISECONDS);
+        manager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        manager.setMaxTotal(Math.max(config.getMaxConnectionsTotal(), config.getMaxConnectionsPerRoute()));
+        return manager;
+    }
+
+    private static CloseableHttpClient createHttpClient(TransformConfig config,
+                                                        PoolingHttpClientConnectionManager manager) {
+        // System properties supply the gateway's proxy settings; TLS comes from the connection manager's registry
+        return HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(manager)
+                .setKeepAliveStrategy(createKeepAliveStrategy(config.getKeepAliveMillis()))
+                .evictExpiredConnections()
+                .evictIdleConnections(config.getConnectionIdleTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(toIntMillis(config.getConnectionRequestTimeoutMillis()))
+                        .setConnectTimeout(toIntMillis(config.getConnectTimeoutMillis()))
+                        .setSocketTimeout(toIntMillis(config.getReadTimeoutMillis()))
+                        .build())
+                .build();
+    }
+
+    private static int toIntMillis(long millis) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, millis));
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor for blocking calls. It is looked up reflectively so the mediator
+     * still runs on older JVMs, where blocking calls fall back to a cached pool of platform threads.
+     */
+    private static ExecutorService createBlockingExecutor() {
         try {
-            URL url = new URL(MISTRAL_API_URL);
-            return APIUtil.getHttpClient(url.getPort(), url.getProtocol());
-        } catch (Exception e) {
-            log.warn("Error creating HTTP client: " + e.getMessage());
-            return null;
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not available on this JVM, running blocking Mistral calls on platform "
+                    + "threads");
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "mistral-blocking-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
         }
     }
 
-    private HttpPost createHttpRequestWithPayload(String payload) {
-        HttpPost httpPost = new HttpPost(MISTRAL_API_URL);
-        httpPost.setHeader("Authorization", "Bearer " + MISTRAL_API_KEY);
-        httpPost.setHeader("Content-Type", "application/json");
-        httpPost.setEntity(new StringEntity(payload, StandardCharsets.UTF_8));
-        return httpPost;
+    private static ThreadFactory createAsyncThreadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "mistral-async-io-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
-    private HttpPost createHttpRequest(String prompt) {
-        return createHttpRequestWithPayload(buildRequestPayload(prompt));
+    /**
+     * Honours the server's Keep-Alive header but never keeps a connection longer than the configured limit.
+     */
+    private static ConnectionKeepAliveStrategy createKeepAliveStrategy(long maxKeepAliveMillis) {
+        return (response, context) -> {
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? Math.min(keepAlive, maxKeepAliveMillis) : maxKeepAliveMillis;
+        };
     }
 
-    private HttpPost createHttpRequestWithSystemPrompt(String systemPrompt, String userPrompt) {
-        return createHttpRequestWithPayload(buildRequestPayloadWithSystemPrompt(systemPrompt, userPrompt));
+    private HttpPost createHttpRequestWithPayload(String payload) {
+        HttpPost httpPost = new HttpPost(backend.getCompletionsUrl());
+        backend.getAuthHeaders().forEach(httpPost::setHeader);
+        httpPost.setHeader("Content-Type", "application/json");
+        httpPost.setEntity(new StringEntity(payload, StandardCharsets.UTF_8));
+        return httpPost;
     }
 
     private HttpPost createHealthCheckRequest() {
@@ -91,24 +373,33 @@ public class MistralService {
     }
 
     private String buildRequestPayload(String prompt) {
-        return buildPayload(0.1, null, createMessage("user", prompt));
+        return buildPayload(completionTemperature, null, createMessage("user", prompt));
     }
 
     private String buildRequestPayloadWithSystemPrompt(String systemPrompt, String userPrompt) {
-        return buildPayload(0.1, null, createMessage("system", systemPrompt), createMessage("user", userPrompt));
+        return buildPayload(completionTemperature, null, createMessage("system", systemPrompt),
+                createMessage("user", userPrompt));
     }
 
     private String buildHealthCheckPayload() {
         return buildPayload(null, 5, createMessage("user", "test"));
     }
 
+    private String buildBatchClassificationPayload(String systemPrompt, List<String> userPrompts) {
+        JsonObject inputs = new JsonObject();
+        inputs.add("inputs", new Gson().toJsonTree(userPrompts));
+        String instructions = systemPrompt != null ? systemPrompt + "\n\n" + BATCH_INSTRUCTIONS : BATCH_INSTRUCTIONS;
+        return backend.buildRequestBody(completionTemperature, null, false, true, createMessage("system", instructions),
+                createMessage("user", inputs.toString())).toString();
+    }
+
+    private String buildStreamingRequestPayload(String prompt) {
+        return backend.buildRequestBody(completionTemperature, null, true, false, createMessage("user", prompt))
+                .toString();
+    }
+
     private String buildPayload(Double temperature, Integer maxTokens, JsonObject... messages) {
-        JsonObject requestBody = new JsonObject();
-        requestBody.addProperty("model", MISTRAL_MODEL);
-        if (temperature != null) requestBody.addProperty("temperature", temperature);
-        if (maxTokens != null) requestBody.addProperty("max_tokens", maxTokens);
-        requestBody.add("messages", new Gson().toJsonTree(messages));
-        return requestBody.toString();
+        return backend.buildRequestBody(temperature, maxTokens, false, false, messages).toString();
     }
 
     private JsonObject createMessage(String role, String content) {
@@ -118,8 +409,8 @@ public class MistralService {
         return message;
     }
 
-    private String executeRequest(HttpClient httpClient, HttpPost httpPost) throws IOException {
-        String response = executeFullRequest(httpClient, httpPost);
+    private String executeRequest(String payload) throws Exception {
+        String response = executeCoalesced(payload, RequestDeadline.NONE, null);
         return response != null ? parseResponse(response) : null;
     }
 
@@ -127,29 +418,655 @@ public class MistralService {
      * Gets the full JSON response from Mistral without parsing, for when you want the complete API response.
      */
     public String getFullJsonResponse(String prompt) {
-        return executeWithErrorHandling(() -> executeFullRequest(createHttpClient(), createHttpRequest(prompt)));
+        return getFullJsonResponse(prompt, RequestDeadline.NONE, null);
+    }
+
+    /**
+     * Like {@link #getFullJsonResponse(String)}, but gives up with {@code null} once the request deadline has
+     * passed. Timeouts, rate-limit pacing and retries all fit within the remaining budget.
+     *
+     * @param onUpstreamResponse Called with the response when this call got it from Mistral itself rather than
+     *                           sharing that of an identical call in flight, or {@code null}
+     */
+    public String getFullJsonResponse(String prompt, RequestDeadline deadline, Consumer<String> onUpstreamResponse) {
+        return executeWithErrorHandling(() -> executeCoalesced(buildRequestPayload(prompt), deadline,
+                onUpstreamResponse));
     }
 
     public String getFullJsonResponseWithSystemPrompt(String systemPrompt, String userPrompt) {
-        return executeWithErrorHandling(() -> executeFullRequest(createHttpClient(), createHttpRequestWithSystemPrompt(systemPrompt, userPrompt)));
+        return executeWithErrorHandling(() -> executeCoalesced(buildRequestPayloadWithSystemPrompt(systemPrompt, userPrompt),
+                RequestDeadline.NONE, null));
     }
 
-    private String executeFullRequest(HttpClient httpClient, HttpPost httpPost) throws IOException {
-        try (CloseableHttpResponse response = APIUtil.executeHTTPRequestWithRetries(httpPost, httpClient)) {
-            if (response.getStatusLine().getStatusCode() != 200) {
+    /**
+     * Non-blocking variant of {@link #getFullJsonResponse(String)}. The returned future completes on one of the
+     * async I/O threads, with {@code null} when the call fails or Mistral answers with a non-200 status.
+     */
+    public CompletableFuture<String> getFullJsonResponseAsync(String prompt) {
+        return getFullJsonResponseAsync(prompt, RequestDeadline.NONE, null);
+    }
+
+    /**
+     * Runs {@link #getFullJsonResponse(String, RequestDeadline, Consumer)} on a virtual thread, so the caller can
+     * wait for the blocking exchange without holding a platform thread. At most the service's permit count of such
+     * calls run at once; the others queue on a permit for up to the configured time, bounded by the deadline.
+     * Requires virtual threads to be enabled.
+     */
+    public CompletableFuture<String> submitFullJsonResponse(String prompt, RequestDeadline deadline,
+                                                            Consumer<String> onUpstreamResponse) {
+        if (blockingExecutor == null) {
+            throw new IllegalStateException("Virtual threads are not enabled for this Mistral service");
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            if (!acquireBlockingCallPermit(deadline)) {
+                log.warn("No Mistral call permit became available, rejecting call");
+                return null;
+            }
+            try {
+                return getFullJsonResponse(prompt, deadline, onUpstreamResponse);
+            } finally {
+                blockingCallPermits.release();
+            }
+        }, blockingExecutor);
+    }
+
+    private boolean acquireBlockingCallPermit(RequestDeadline deadline) {
+        try {
+            return blockingCallPermits.tryAcquire(deadline.capMillis(blockingCallQueueTimeoutMillis),
+                    TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #getFullJsonResponse(String, RequestDeadline, Consumer)}.
+     */
+    public CompletableFuture<String> getFullJsonResponseAsync(String prompt, RequestDeadline deadline,
+                                                              Consumer<String> onUpstreamResponse) {
+        return executeFullRequestAsync(buildRequestPayload(prompt), deadline, onUpstreamResponse);
+    }
+
+    public CompletableFuture<String> getFullJsonResponseWithSystemPromptAsync(String systemPrompt, String userPrompt) {
+        return executeFullRequestAsync(buildRequestPayloadWithSystemPrompt(systemPrompt, userPrompt),
+                RequestDeadline.NONE, null);
+    }
+
+    public CompletableFuture<String> classifyRequestAsync(String prompt) {
+        return getFullJsonResponseAsync(prompt).thenApply(response -> response != null ? parseResponse(response) : null);
+    }
+
+    public CompletableFuture<String> classifyRequestWithSystemPromptAsync(String systemPrompt, String userPrompt) {
+        return getFullJsonResponseWithSystemPromptAsync(systemPrompt, userPrompt)
+                .thenApply(response -> response != null ? parseResponse(response) : null);
+    }
+
+    /**
+     * Sends a {@code stream=true} completion and completes as soon as the response headers arrive. The returned
+     * stream yields Mistral's server-sent-event chunks as they are generated, with only a small bounded buffer
+     * in between, and must be closed by the caller. Completes with {@code null} when the call fails or Mistral
+     * answers with a non-200 status.
+     */
+    public CompletableFuture<InputStream> getStreamingResponseAsync(String prompt) {
+        return getStreamingResponseAsync(prompt, RequestDeadline.NONE);
+    }
+
+    /**
+     * Like {@link #getStreamingResponseAsync(String)}, with the wait for the response headers bounded by the
+     * request deadline. The stream itself is not cut off once it has started.
+     */
+    public CompletableFuture<InputStream> getStreamingResponseAsync(String prompt, RequestDeadline deadline) {
+        if (deadline.isExpired()) {
+            logDeadlineExpired();
+            return CompletableFuture.completedFuture(null);
+        }
+        String payload = buildStreamingRequestPayload(prompt);
+        return afterRateLimit(apiKey -> sendStreamingRequestAsync(payload, apiKey, deadline), deadline);
+    }
+
+    private CompletableFuture<InputStream> sendStreamingRequestAsync(String payload, ApiKeyPool.ApiKey apiKey,
+                                                                     RequestDeadline deadline) {
+        if (deadline.isExpired() || !admitCall(false)) {
+            keyPool.release(apiKey);
+            return CompletableFuture.completedFuture(null);
+        }
+        LoadBalancer.Endpoint endpoint = loadBalancer.choose();
+        TransformEvents.UpstreamExchange exchangeEvent = new TransformEvents.UpstreamExchange();
+        exchangeEvent.begin();
+        long start = System.nanoTime();
+        CompletableFuture<Void> headersReceived = new CompletableFuture<>();
+        HttpRequest request = createAsyncRequest(payload, deadline, endpoint, apiKey);
+        return asyncHttpClient.sendAsync(request, trackHeaders(HttpResponse.BodyHandlers.ofInputStream(), endpoint,
+                        start, headersReceived))
+                .handle((response, error) -> {
+                    commitExchange(exchangeEvent, endpoint, request, response, true);
+                    if (error != null) {
+                        onEndpointError(endpoint, start, headersReceived, error);
+                        keyPool.release(apiKey);
+                        onCallComplete(start, 0);
+                        log.warn("Error executing streaming HTTP request: " + error.getMessage());
+                        return null;
+                    }
+                    onRateLimitHeaders(apiKey, response);
+                    onCallComplete(start, response.statusCode());
+                    if (response.statusCode() != 200) {
+                        closeQuietly(response.body());
+                        return null;
+                    }
+                    return response.body();
+                });
+    }
+
+    private CompletableFuture<String> classifySingleAsync(String systemPrompt, String userPrompt) {
+        return systemPrompt != null ? classifyRequestWithSystemPromptAsync(systemPrompt, userPrompt)
+                : classifyRequestAsync(userPrompt);
+    }
+
+    private CompletableFuture<String> classifyBatchAsync(String systemPrompt, List<String> userPrompts) {
+        return executeFullRequestAsync(buildBatchClassificationPayload(systemPrompt, userPrompts), RequestDeadline.NONE,
+                null);
+    }
+
+    private HttpRequest createAsyncRequest(String payload, RequestDeadline deadline, LoadBalancer.Endpoint endpoint,
+                                           ApiKeyPool.ApiKey apiKey) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint.getUri())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8));
+        apiKey.getAuthHeaders().forEach(builder::header);
+        builder.timeout(Duration.ofMillis(Math.max(1, deadline.capMillis(readTimeoutMillis))));
+        return builder.build();
+    }
+
+    /**
+     * Wraps a body handler so that the arrival of the response headers completes {@code headersReceived} and
+     * feeds the endpoint's latency and status to the load balancer.
+     */
+    private <T> HttpResponse.BodyHandler<T> trackHeaders(HttpResponse.BodyHandler<T> handler,
+                                                         LoadBalancer.Endpoint endpoint, long start,
+                                                         CompletableFuture<Void> headersReceived) {
+        return responseInfo -> {
+            if (headersReceived.complete(null)) {
+                loadBalancer.onComplete(endpoint, System.nanoTime() - start,
+                        isUpstreamFailure(responseInfo.statusCode()));
+            }
+            return handler.apply(responseInfo);
+        };
+    }
+
+    /**
+     * Settles the load balancer's bookkeeping for a call that ended before its response headers arrived.
+     */
+    private void onEndpointError(LoadBalancer.Endpoint endpoint, long start, CompletableFuture<Void> headersReceived,
+                                 Throwable error) {
+        if (!headersReceived.completeExceptionally(error)) {
+            return;
+        }
+        if (error instanceof CancellationException) {
+            loadBalancer.onAbandoned(endpoint);
+        } else {
+            loadBalancer.onComplete(endpoint, System.nanoTime() - start, true);
+        }
+    }
+
+    /**
+     * Bounds the blocking exchange by the time left, on top of the client's default timeouts. The socket timeout
+     * limits each read rather than the whole exchange, so it is reset before every attempt.
+     */
+    private void applyDeadline(HttpPost httpPost, RequestDeadline deadline) {
+        if (!deadline.isBounded()) {
+            return;
+        }
+        httpPost.setConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(toIntMillis(deadline.capMillis(connectionRequestTimeoutMillis)))
+                .setConnectTimeout(toIntMillis(deadline.capMillis(connectTimeoutMillis)))
+                .setSocketTimeout(toIntMillis(deadline.capMillis(readTimeoutMillis)))
+                .build());
+    }
+
+    private void logDeadlineExpired() {
+        log.warn("Request deadline passed, not calling Mistral");
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            log.debug("Error closing Mistral response stream", e);
+        }
+    }
+
+    /**
+     * Sends the payload, sharing the response of an identical call already in flight. The payloads are built
+     * here with a fixed field order, so the payload itself is the canonical coalescing key. The listener only
+     * runs inside this caller's own call, so a shared response never reaches it.
+     */
+    private String executeCoalesced(String payload, RequestDeadline deadline, Consumer<String> onUpstreamResponse)
+            throws Exception {
+        if (coalescer == null) {
+            return notifyUpstreamResponse(executeFullRequest(createHttpRequestWithPayload(payload), deadline),
+                    onUpstreamResponse);
+        }
+        return coalescer.execute(payload, () -> notifyUpstreamResponse(
+                executeFullRequest(createHttpRequestWithPayload(payload), deadline), onUpstreamResponse),
+                deadline.capMillis(coalescingWaitTimeoutMillis));
+    }
+
+    private CompletableFuture<String> executeFullRequestAsync(String payload, RequestDeadline deadline,
+                                                              Consumer<String> onUpstreamResponse) {
+        if (deadline.isExpired()) {
+            logDeadlineExpired();
+            return CompletableFuture.completedFuture(null);
+        }
+        if (coalescer == null) {
+            return afterRateLimit(apiKey -> sendFullRequestAsync(payload, apiKey, deadline), deadline)
+                    .thenApply(response -> notifyUpstreamResponse(response, onUpstreamResponse));
+        }
+        return coalescer.executeAsync(payload, () -> afterRateLimit(
+                apiKey -> sendFullRequestAsync(payload, apiKey, deadline), deadline)
+                        .thenApply(response -> notifyUpstreamResponse(response, onUpstreamResponse)),
+                deadline.capMillis(coalescingWaitTimeoutMillis));
+    }
+
+    private static String notifyUpstreamResponse(String response, Consumer<String> onUpstreamResponse) {
+        if (response != null && onUpstreamResponse != null) {
+            onUpstreamResponse.accept(response);
+        }
+        return response;
+    }
+
+    /**
+     * Starts an async call with the API key that has the most quota left, once that key's rate limiter allows it,
+     * without blocking the calling thread.
+     */
+    private <T> CompletableFuture<T> afterRateLimit(Function<ApiKeyPool.ApiKey, CompletableFuture<T>> call,
+                                                    RequestDeadline deadline) {
+        long waitStart = System.nanoTime();
+        ApiKeyPool.ApiKey apiKey = keyPool.acquire();
+        long delayNanos = apiKey.reserve();
+        if (delayNanos < 0) {
+            keyPool.release(apiKey);
+            logRateLimited();
+            return CompletableFuture.completedFuture(null);
+        }
+        if (TimeUnit.NANOSECONDS.toMillis(delayNanos) >= deadline.remainingMillis()) {
+            keyPool.release(apiKey);
+            logDeadlineExpired();
+            return CompletableFuture.completedFuture(null);
+        }
+        if (delayNanos == 0) {
+            stages.record(StageMetrics.Stage.RATE_LIMIT_WAIT, waitStart);
+            return call.apply(apiKey);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, asyncExecutor))
+                .thenCompose(ignored -> {
+                    stages.record(StageMetrics.Stage.RATE_LIMIT_WAIT, waitStart);
+                    return call.apply(apiKey);
+                });
+    }
+
+    private void onRateLimitHeaders(ApiKeyPool.ApiKey apiKey, HttpResponse<?> response) {
+        keyPool.onResponse(apiKey, name -> response.headers().firstValue(name).orElse(null), response.statusCode());
+    }
+
+    private CompletableFuture<String> sendFullRequestAsync(String payload, ApiKeyPool.ApiKey apiKey,
+                                                           RequestDeadline deadline) {
+        if (hedger != null) {
+            return hedger.execute(() -> sendAttempt(payload, apiKey, deadline),
+                    () -> sendHedgeAttempt(payload, deadline), asyncExecutor);
+        }
+        RequestHedger.Attempt<String> attempt = sendAttempt(payload, apiKey, deadline);
+        return attempt != null ? attempt.getResult() : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Sends a hedge only when the rate limiter of the key it would use can take it right away; a hedge is never
+     * worth waiting for.
+     */
+    private RequestHedger.Attempt<String> sendHedgeAttempt(String payload, RequestDeadline deadline) {
+        ApiKeyPool.ApiKey apiKey = keyPool.acquire();
+        if (!apiKey.tryReserve()) {
+            keyPool.release(apiKey);
+            return null;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Hedging slow Mistral call after " + TimeUnit.NANOSECONDS.toMillis(hedger.getHedgeDelayNanos())
+                    + " ms");
+        }
+        return sendAttempt(payload, apiKey, deadline);
+    }
+
+    private RequestHedger.Attempt<String> sendAttempt(String payload, ApiKeyPool.ApiKey apiKey,
+                                                      RequestDeadline deadline) {
+        if (deadline.isExpired() || !admitCall(false)) {
+            keyPool.release(apiKey);
+            return null;
+        }
+        LoadBalancer.Endpoint endpoint = loadBalancer.choose();
+        TransformEvents.UpstreamExchange exchangeEvent = new TransformEvents.UpstreamExchange();
+        exchangeEvent.begin();
+        long start = System.nanoTime();
+        CompletableFuture<Void> headersReceived = new CompletableFuture<>();
+        HttpRequest request = createAsyncRequest(payload, deadline, endpoint, apiKey);
+        CompletableFuture<HttpResponse<String>> exchange = asyncHttpClient.sendAsync(request,
+                trackHeaders(HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8), endpoint, start,
+                        headersReceived));
+        CompletableFuture<String> result = exchange.handle((response, error) -> {
+            endpointStages(endpoint).record(StageMetrics.Stage.UPSTREAM_EXCHANGE, start);
+            commitExchange(exchangeEvent, endpoint, request, response, false);
+            if (error != null) {
+                onEndpointError(endpoint, start, headersReceived, error);
+                keyPool.release(apiKey);
+            }
+            if (error instanceof CancellationException) {
+                onCallAbandoned();
+                return null;
+            }
+            if (error != null) {
+                onCallComplete(start, 0);
+                log.warn("Error executing async HTTP request: " + error.getMessage());
+                return null;
+            }
+            onRateLimitHeaders(apiKey, response);
+            onCallComplete(start, response.statusCode());
+            return response.statusCode() == 200 ? response.body() : null;
+        });
+        return new RequestHedger.Attempt<>(headersReceived, result, () -> exchange.cancel(true));
+    }
+
+    private String executeFullRequest(HttpPost httpPost, RequestDeadline deadline) throws IOException {
+        if (deadline.isExpired()) {
+            logDeadlineExpired();
+            return null;
+        }
+        long waitStart = System.nanoTime();
+        ApiKeyPool.ApiKey apiKey = awaitRateLimit(deadline);
+        stages.record(StageMetrics.Stage.RATE_LIMIT_WAIT, waitStart);
+        if (apiKey == null) {
+            return null;
+        }
+        if (!admitCall(true)) {
+            keyPool.release(apiKey);
+            return null;
+        }
+        long start = System.nanoTime();
+        int statusCode = 0;
+        try (CloseableHttpResponse response = executeWithRetries(httpPost, apiKey, deadline)) {
+            int responseStatusCode = response.getStatusLine().getStatusCode();
+            if (responseStatusCode != 200) {
+                statusCode = responseStatusCode;
                 return null;
             }
             
             // Return the full JSON response without parsing
-            return EntityUtils.toString(response.getEntity());
+            long readStart = System.nanoTime();
+            String body = EntityUtils.toString(response.getEntity());
+            stages.record(StageMetrics.Stage.RESPONSE_READ, readStart);
+            statusCode = responseStatusCode;
+            return body;
         } catch (Exception e) {
             log.warn("Error executing HTTP request: " + e.getMessage());
             return null;
+        } finally {
+            onCallComplete(start, statusCode);
+        }
+    }
+
+    /**
+     * Sends the request, retrying I/O errors and server errors with exponential backoff. Every attempt is paced by
+     * the rate limiter of its API key, so a 429 is only retried when another key is free or the {@code Retry-After}
+     * fits in the pacing budget; otherwise the throttled response is returned instead of burning another rejected
+     * call. No retry is started that could not finish before the request deadline.
+     *
+     * @param apiKey Key acquired for the first attempt
+     */
+    private CloseableHttpResponse executeWithRetries(HttpPost httpPost, ApiKeyPool.ApiKey apiKey,
+                                                     RequestDeadline deadline) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            CloseableHttpResponse response = null;
+            IOException failure = null;
+            applyDeadline(httpPost, deadline);
+            // Every attempt is balanced on its own, so a retry usually avoids the endpoint that just failed
+            LoadBalancer.Endpoint endpoint = loadBalancer.choose();
+            httpPost.setURI(endpoint.getUri());
+            apiKey.getAuthHeaders().forEach(httpPost::setHeader);
+            TransformEvents.UpstreamExchange exchangeEvent = new TransformEvents.UpstreamExchange();
+            exchangeEvent.begin();
+            long attemptStart = System.nanoTime();
+            try {
+                response = httpClient.execute(httpPost);
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                // Settled here so that a runtime exception from the client does not leak the endpoint or the key
+                if (response == null) {
+                    endpointStages(endpoint).record(StageMetrics.Stage.UPSTREAM_EXCHANGE, attemptStart);
+                    commitExchange(exchangeEvent, endpoint, httpPost, null, attempt);
+                    loadBalancer.onComplete(endpoint, System.nanoTime() - attemptStart, true);
+                    keyPool.release(apiKey);
+                }
+            }
+            if (failure != null) {
+                if (attempt >= maxRetries || backoffMillis(attempt) >= deadline.remainingMillis()
+                        || !sleep(backoffMillis(attempt)) || (apiKey = awaitRateLimit(deadline)) == null) {
+                    throw failure;
+                }
+                continue;
+            }
+            endpointStages(endpoint).record(StageMetrics.Stage.UPSTREAM_EXCHANGE, attemptStart);
+            commitExchange(exchangeEvent, endpoint, httpPost, response, attempt);
+            int statusCode = response.getStatusLine().getStatusCode();
+            loadBalancer.onComplete(endpoint, System.nanoTime() - attemptStart, isUpstreamFailure(statusCode));
+            CloseableHttpResponse received = response;
+            keyPool.onResponse(apiKey, name -> headerValue(received, name), statusCode);
+            if (attempt >= maxRetries || !isRetryable(statusCode)) {
+                return response;
+            }
+            // A throttled key is cooling down by now, so the retry usually goes out with another one
+            ApiKeyPool.ApiKey retryKey = keyPool.acquire();
+            long delayNanos = retryKey.reserve();
+            if (delayNanos < 0) {
+                keyPool.release(retryKey);
+                logRateLimited();
+                return response;
+            }
+            long backoffMillis = statusCode == 429 ? 0 : backoffMillis(attempt);
+            long waitMillis = Math.max(backoffMillis, TimeUnit.NANOSECONDS.toMillis(delayNanos));
+            if (waitMillis >= deadline.remainingMillis()) {
+                keyPool.release(retryKey);
+                return response;
+            }
+            response.close();
+            apiKey = retryKey;
+            if (!sleep(waitMillis)) {
+                keyPool.release(apiKey);
+                throw new IOException("Interrupted while waiting to retry Mistral request");
+            }
+        }
+    }
+
+    private StageMetrics endpointStages(LoadBalancer.Endpoint endpoint) {
+        return endpointStages.getOrDefault(endpoint.getUrl(), StageMetrics.DISABLED);
+    }
+
+    /**
+     * Commits the flight recorder event of a blocking attempt, which ends when the response headers arrived.
+     *
+     * @param response The response, or {@code null} when the attempt failed
+     */
+    private void commitExchange(TransformEvents.UpstreamExchange event, LoadBalancer.Endpoint endpoint,
+                                HttpPost request, CloseableHttpResponse response, int retry) {
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.backend = backend.getName();
+        event.endpoint = endpoint.getUrl();
+        event.status = response != null ? response.getStatusLine().getStatusCode() : 0;
+        event.requestBytes = request.getEntity() != null ? request.getEntity().getContentLength() : 0;
+        event.responseBytes = response != null && response.getEntity() != null
+                ? response.getEntity().getContentLength() : -1;
+        event.retry = retry;
+        event.commit();
+    }
+
+    /**
+     * Commits the flight recorder event of an async call, on the HTTP client thread that completed it. Async calls
+     * are not retried, so the retry count is 0.
+     *
+     * @param response The response, or {@code null} when the call failed
+     */
+    private void commitExchange(TransformEvents.UpstreamExchange event, LoadBalancer.Endpoint endpoint,
+                                HttpRequest request, HttpResponse<?> response, boolean streamed) {
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.backend = backend.getName();
+        event.endpoint = endpoint.getUrl();
+        event.status = response != null ? response.statusCode() : 0;
+        event.requestBytes = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+        event.responseBytes = response != null ? response.headers().firstValueAsLong("Content-Length").orElse(-1)
+                : -1;
+        event.streamed = streamed;
+        event.commit();
+    }
+
+    private static String headerValue(CloseableHttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    private static boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode == 500 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    private long backoffMillis(int attempt) {
+        return retryBackoffMillis << Math.min(attempt, 10);
+    }
+
+    /**
+     * Acquires the API key with the most quota left and blocks until its rate limiter allows the next call.
+     *
+     * @return The key to send the call with, or {@code null} when the call would have to wait longer than the
+     *         pacing budget or the deadline and should not be sent
+     */
+    private ApiKeyPool.ApiKey awaitRateLimit(RequestDeadline deadline) {
+        ApiKeyPool.ApiKey apiKey = keyPool.acquire();
+        long delayNanos = apiKey.reserve();
+        if (delayNanos < 0) {
+            keyPool.release(apiKey);
+            logRateLimited();
+            return null;
+        }
+        if (TimeUnit.NANOSECONDS.toMillis(delayNanos) >= deadline.remainingMillis()) {
+            keyPool.release(apiKey);
+            logDeadlineExpired();
+            return null;
+        }
+        if (!sleep(TimeUnit.NANOSECONDS.toMillis(delayNanos))) {
+            keyPool.release(apiKey);
+            return null;
+        }
+        return apiKey;
+    }
+
+    private static boolean sleep(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 
-    private boolean executeHealthCheck(HttpClient httpClient, HttpPost httpPost) throws IOException {
-        try (CloseableHttpResponse response = APIUtil.executeHTTPRequestWithRetries(httpPost, httpClient)) {
+    private void logRateLimited() {
+        metrics.onRejection();
+        log.warn(backend.getName() + " rate limit exhausted beyond the pacing budget, not sending request");
+    }
+
+    /**
+     * Admits a call past the adaptive concurrency limit and the circuit breaker. Every admitted call must be
+     * followed by {@link #onCallComplete}.
+     *
+     * @param mayWait Whether the caller may wait briefly for a concurrency slot instead of being rejected at once
+     */
+    private boolean admitCall(boolean mayWait) {
+        if (concurrencyLimiter != null && !acquireConcurrencySlot(mayWait)) {
+            metrics.onRejection();
+            log.warn(backend.getName() + " concurrency limit of " + concurrencyLimiter.getLimit()
+                    + " reached, rejecting call");
+            return false;
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            metrics.onRejection();
+            if (concurrencyLimiter != null) {
+                concurrencyLimiter.release(0, false);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(backend.getName() + " circuit breaker is open, failing fast");
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private boolean acquireConcurrencySlot(boolean mayWait) {
+        if (!mayWait) {
+            return concurrencyLimiter.tryAcquire();
+        }
+        try {
+            return concurrencyLimiter.acquire(concurrencyLimitQueueTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Feeds the outcome of an admitted call to the circuit breaker and the concurrency limiter.
+     *
+     * @param start      {@link System#nanoTime()} when the call was sent
+     * @param statusCode HTTP status of the response, or 0 when the call failed without one
+     */
+    private void onCallComplete(long start, int statusCode) {
+        long durationNanos = System.nanoTime() - start;
+        metrics.onCall(statusCode != 200, durationNanos);
+        circuitBreaker.onResult(statusCode == 0 || isUpstreamFailure(statusCode), durationNanos);
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.release(durationNanos, statusCode == 0 || isOverloadSignal(statusCode));
+        }
+    }
+
+    /**
+     * Releases an admitted call that was cancelled before it had an outcome, without counting it for or against
+     * Mistral's health.
+     */
+    private void onCallAbandoned() {
+        circuitBreaker.releasePermission();
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.release(0, false);
+        }
+    }
+
+    /**
+     * Client errors other than timeouts and throttling say nothing about Mistral's health.
+     */
+    private static boolean isUpstreamFailure(int statusCode) {
+        return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+    }
+
+    private static boolean isOverloadSignal(int statusCode) {
+        return statusCode == 408 || statusCode == 429 || statusCode == 503;
+    }
+
+    private boolean executeHealthCheck(HttpPost httpPost, RequestDeadline deadline) throws IOException {
+        // A bounded check gets a single attempt; the retries would not fit the budget
+        try (CloseableHttpResponse response = deadline.isBounded() ? httpClient.execute(httpPost)
+                : APIUtil.executeHTTPRequestWithRetries(httpPost, httpClient)) {
             return response.getStatusLine().getStatusCode() == 200;
         } catch (Exception e) {
             return false;
@@ -157,20 +1074,30 @@ public class MistralService {
     }
 
     private String parseResponse(String responseBody) {
+        return backend.parseContent(responseBody);
+    }
+
+    /**
+     * Returns the answers of a batched classification, or {@code null} when they do not match the batch.
+     */
+    private List<String> parseBatchResponse(String responseBody, int expectedAnswers) {
+        String content = parseResponse(responseBody);
+        if (content == null) {
+            return null;
+        }
         try {
-            JsonObject jsonResponse = JsonParser.parseString(responseBody).getAsJsonObject();
-            if (jsonResponse.has("choices") && jsonResponse.getAsJsonArray("choices").size() > 0) {
-                JsonObject choice = jsonResponse.getAsJsonArray("choices").get(0).getAsJsonObject();
-                if (choice.has("message")) {
-                    JsonObject messageObj = choice.getAsJsonObject("message");
-                    if (messageObj.has("content")) {
-                        return messageObj.get("content").getAsString().trim();
-                    }
-                }
+            JsonArray results = JsonParser.parseString(content).getAsJsonObject().getAsJsonArray("results");
+            if (results == null || results.size() != expectedAnswers) {
+                return null;
             }
+            List<String> answers = new ArrayList<>(expectedAnswers);
+            for (JsonElement result : results) {
+                answers.add(result.isJsonPrimitive() ? result.getAsString().trim() : result.toString());
+            }
+            return answers;
         } catch (Exception e) {
-            log.warn("Error parsing Mistral response");
+            log.warn("Error parsing batched Mistral classification response");
+            return null;
         }
-        return null;
     }
 }
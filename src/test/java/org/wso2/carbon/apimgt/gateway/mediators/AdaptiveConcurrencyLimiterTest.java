@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static AdaptiveConcurrencyLimiter limiter(int initial) {
+        return new AdaptiveConcurrencyLimiter(TransformConfig.parse(
+                "{\"concurrencyLimitInitial\":" + initial + ",\"concurrencyLimitMin\":2,\"concurrencyLimitMax\":100}"));
+    }
+
+    @Test
+    public void dropHalvesLimitAtOnce() {
+        AdaptiveConcurrencyLimiter limiter = limiter(40);
+        assertTrue(limiter.tryAcquire());
+        limiter.release(RTT, true);
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    public void callsSentBeforeHalvingDoNotHalveAgain() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(40);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        long sentAt = System.nanoTime();
+        Thread.sleep(2);
+        limiter.release(System.nanoTime() - sentAt, true);
+        limiter.release(System.nanoTime() - sentAt, true);
+        assertEquals(20, limiter.getLimit());
+        // A call sent after the halving that is dropped as well halves again
+        assertTrue(limiter.tryAcquire());
+        long laterSentAt = System.nanoTime();
+        limiter.release(Math.max(1, System.nanoTime() - laterSentAt), true);
+        assertEquals(10, limiter.getLimit());
+        limiter.release(RTT, false);
+    }
+
+    @Test
+    public void limitNeverDropsBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(3);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(1, true);
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void busyLimitGrowsWhileLatencyStaysFlat() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        for (int round = 0; round < 20; round++) {
+            int limit = limiter.getLimit();
+            for (int i = 0; i < limit; i++) {
+                assertTrue(limiter.tryAcquire());
+            }
+            assertFalse(limiter.tryAcquire());
+            for (int i = 0; i < limit; i++) {
+                limiter.release(RTT, false);
+            }
+        }
+        assertTrue(limiter.getLimit() > 4);
+    }
+}
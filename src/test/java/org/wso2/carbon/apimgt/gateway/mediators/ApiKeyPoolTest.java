@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ApiKeyPoolTest {
+
+    private static final TransformConfig CONFIG =
+            TransformConfig.parse("{\"rateLimitEnabled\":false,\"apiKeyCooldownMillis\":20}");
+
+    private final ApiKeyPool pool = new ApiKeyPool(Arrays.asList(credential("a"), credential("b")), CONFIG);
+
+    @Test
+    public void prefersKeyWithMostRequestsLeft() {
+        report(acquire("a"), "5", null, 200);
+        report(acquire("b"), "50", null, 200);
+        assertEquals("b", name(pool.acquire()));
+    }
+
+    @Test
+    public void throttledKeyCoolsDown() {
+        report(acquire("a"), "100", null, 200);
+        report(acquire("b"), "5", null, 200);
+        report(acquire("a"), null, null, 429);
+        for (int i = 0; i < 10; i++) {
+            ApiKeyPool.ApiKey key = pool.acquire();
+            assertEquals("b", name(key));
+            pool.release(key);
+        }
+    }
+
+    @Test
+    public void recoveredKeyWithoutReportedLimitGetsOneProbeCall() throws InterruptedException {
+        report(acquire("a"), "100", null, 200);
+        report(acquire("b"), "5", null, 200);
+        report(acquire("a"), null, null, 429);
+        Thread.sleep(40);
+        ApiKeyPool.ApiKey probe = pool.acquire();
+        assertEquals("b", name(probe));
+        pool.release(probe);
+        // Once the other key runs as low as the probe budget, the recovered key is tried
+        report(acquire("b"), "0", null, 200);
+        assertEquals("a", name(pool.acquire()));
+    }
+
+    @Test
+    public void recoveredKeyGetsBackItsReportedLimit() throws InterruptedException {
+        report(acquire("a"), "100", "100", 200);
+        report(acquire("b"), "50", null, 200);
+        report(acquire("a"), null, null, 429);
+        Thread.sleep(40);
+        assertEquals("a", name(pool.acquire()));
+    }
+
+    @Test
+    public void callInFlightIsCountedOnce() {
+        report(acquire("a"), "3", null, 200);
+        report(acquire("b"), "1", null, 200);
+        ApiKeyPool.ApiKey held = pool.acquire();
+        assertEquals("a", name(held));
+        // Two requests left on a against one on b; counting the held call twice would make it a tie
+        for (int i = 0; i < 20; i++) {
+            ApiKeyPool.ApiKey key = pool.acquire();
+            assertEquals("a", name(key));
+            pool.release(key);
+        }
+    }
+
+    @Test
+    public void releasedCallsGiveTheirRequestBack() {
+        report(acquire("a"), "3", null, 200);
+        report(acquire("b"), "2", null, 200);
+        for (int i = 0; i < 20; i++) {
+            ApiKeyPool.ApiKey key = pool.acquire();
+            assertEquals("a", name(key));
+            pool.release(key);
+        }
+    }
+
+    private ApiKeyPool.ApiKey acquire(String name) {
+        for (int i = 0; i < 100; i++) {
+            ApiKeyPool.ApiKey key = pool.acquire();
+            if (name.equals(name(key))) {
+                return key;
+            }
+            pool.release(key);
+        }
+        throw new AssertionError("Key " + name + " was never picked");
+    }
+
+    private void report(ApiKeyPool.ApiKey key, String remaining, String limit, int statusCode) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("x-ratelimit-remaining-requests", remaining);
+        headers.put("x-ratelimit-limit-requests", limit);
+        pool.onResponse(key, headers::get, statusCode);
+    }
+
+    private static Map<String, String> credential(String name) {
+        return Collections.singletonMap("Authorization", name);
+    }
+
+    private static String name(ApiKeyPool.ApiKey key) {
+        return key.getAuthHeaders().get("Authorization");
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upstream payload work of {@link MistralService}: building the completion request for a prompt (its
+ * {@code buildPayload} and {@code createMessage}, which delegate to the backend) and reading the answer out of the
+ * response ({@code parseResponse}). The prompts are the user content the mediator extracts from each corpus shape.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BackendPayloadBenchmark {
+
+    /**
+     * A prompt to build a request for.
+     */
+    @State(Scope.Benchmark)
+    public static class BuildState {
+
+        @Param({"SINGLE_PROMPT", "CONVERSATION", "LARGE_CONTEXT", "IMAGES"})
+        public PayloadCorpus.Shape shape;
+
+        private LlmBackend backend;
+        private String prompt;
+
+        @Setup
+        public void setUp() {
+            backend = new MistralBackend(new TransformConfig.BackendConfig());
+            prompt = TransformRequest.parse(PayloadCorpus.request(shape)).getUserContent();
+        }
+    }
+
+    /**
+     * A completion response to parse.
+     */
+    @State(Scope.Benchmark)
+    public static class ParseState {
+
+        // A classification label and a long generated answer
+        @Param({"20", "2000"})
+        public int answerWords;
+
+        private LlmBackend backend;
+        private String response;
+
+        @Setup
+        public void setUp() {
+            backend = new MistralBackend(new TransformConfig.BackendConfig());
+            response = PayloadCorpus.completion(answerWords);
+        }
+    }
+
+    @Benchmark
+    public String buildPayload(BuildState state) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "user");
+        message.addProperty("content", state.prompt);
+        return state.backend.buildRequestBody(0.1, null, false, false, message).toString();
+    }
+
+    @Benchmark
+    public String parseResponse(ParseState state) {
+        return state.backend.parseContent(state.response);
+    }
+}
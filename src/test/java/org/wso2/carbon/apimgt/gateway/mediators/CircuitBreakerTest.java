@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private static CircuitBreaker breaker(long openDurationMillis) {
+        return new CircuitBreaker("test", TransformConfig.parse("{\"circuitBreakerWindowSize\":10,"
+                + "\"circuitBreakerMinimumCalls\":4,\"circuitBreakerFailureRateThreshold\":50,"
+                + "\"circuitBreakerSlowCallRateThreshold\":80,\"circuitBreakerSlowCallDurationMillis\":1000,"
+                + "\"circuitBreakerOpenDurationMillis\":" + openDurationMillis + ","
+                + "\"circuitBreakerHalfOpenPermittedCalls\":2}"));
+    }
+
+    private static void call(CircuitBreaker breaker, boolean failed, long durationNanos) {
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onResult(failed, durationNanos);
+    }
+
+    @Test
+    public void opensOnceFailureRateIsReached() {
+        CircuitBreaker breaker = breaker(60000);
+        call(breaker, true, FAST);
+        call(breaker, true, FAST);
+        call(breaker, false, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        call(breaker, false, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = breaker(60000);
+        for (int i = 0; i < 3; i++) {
+            call(breaker, true, FAST);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void opensOnSlowCalls() {
+        CircuitBreaker breaker = breaker(60000);
+        for (int i = 0; i < 4; i++) {
+            call(breaker, false, SLOW);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void rateCoversOnlyTheLastWindowOfCalls() {
+        CircuitBreaker breaker = breaker(60000);
+        for (int i = 0; i < 10; i++) {
+            call(breaker, false, FAST);
+        }
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true, FAST);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        // Five failures in the last ten calls, though only a third of all calls
+        call(breaker, true, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenTrialsCloseOnSuccess() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true, FAST);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        breaker.onResult(false, FAST);
+        breaker.onResult(false, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenTrialsReopenOnFailure() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true, FAST);
+        }
+        call(breaker, true, FAST);
+        call(breaker, false, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void releasedTrialPermitCanBeTakenAgain() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true, FAST);
+        }
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.isCallPermitted());
+        breaker.releasePermission();
+        assertTrue(breaker.isCallPermitted());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ClassificationBatcherTest {
+
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private String batchResponse = "ok";
+    private ClassificationBatcher batcher;
+
+    @After
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    private ClassificationBatcher batcher(int maxBatchSize) {
+        batcher = new ClassificationBatcher(10_000, maxBatchSize,
+                (systemPrompt, prompts) -> {
+                    List<String> batch = new ArrayList<>();
+                    batch.add(systemPrompt);
+                    batch.addAll(prompts);
+                    batches.add(batch);
+                    return CompletableFuture.completedFuture(batchResponse);
+                },
+                (response, count) -> "ok".equals(response) ? Collections.nCopies(count, "label") : null,
+                (systemPrompt, prompt) -> {
+                    singleCalls.incrementAndGet();
+                    return CompletableFuture.completedFuture("single");
+                });
+        return batcher;
+    }
+
+    @Test
+    public void fullBatchIsSentAsOneCall() throws Exception {
+        ClassificationBatcher batcher = batcher(2);
+        CompletableFuture<String> first = batcher.submit("tenant", "system", "a");
+        CompletableFuture<String> second = batcher.submit("tenant", "system", "b");
+        assertEquals("label", first.get(1, TimeUnit.SECONDS));
+        assertEquals("label", second.get(1, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(Arrays.asList("system", "a", "b")), batches);
+        assertEquals(0, singleCalls.get());
+    }
+
+    @Test
+    public void failedBatchIsNotRetriedPerPrompt() throws Exception {
+        batchResponse = null;
+        ClassificationBatcher batcher = batcher(2);
+        CompletableFuture<String> first = batcher.submit("tenant", "system", "a");
+        CompletableFuture<String> second = batcher.submit("tenant", "system", "b");
+        assertNull(first.get(1, TimeUnit.SECONDS));
+        assertNull(second.get(1, TimeUnit.SECONDS));
+        assertEquals(0, singleCalls.get());
+    }
+
+    @Test
+    public void unparseableBatchFallsBackToSingleCalls() throws Exception {
+        batchResponse = "garbled";
+        ClassificationBatcher batcher = batcher(2);
+        CompletableFuture<String> first = batcher.submit("tenant", "system", "a");
+        CompletableFuture<String> second = batcher.submit("tenant", "system", "b");
+        assertEquals("single", first.get(1, TimeUnit.SECONDS));
+        assertEquals("single", second.get(1, TimeUnit.SECONDS));
+        assertEquals(2, singleCalls.get());
+    }
+
+    @Test
+    public void scopesAndMissingSystemPromptAreNotMixed() throws Exception {
+        ClassificationBatcher batcher = batcher(2);
+        batcher.submit("tenant-a", "system", "a");
+        batcher.submit("tenant-b", "system", "b");
+        batcher.submit("tenant-a", "", "c");
+        batcher.submit("tenant-a", null, "d");
+        assertEquals(0, batches.size());
+        batcher.submit("tenant-a", null, "e").get(1, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList(Arrays.asList(null, "d", "e")), batches);
+    }
+
+    @Test
+    public void callsThatThrowCompleteWithNull() throws Exception {
+        batcher = new ClassificationBatcher(10_000, 2,
+                (systemPrompt, prompts) -> {
+                    throw new IllegalStateException("executor shut down");
+                },
+                (response, count) -> Collections.nCopies(count, "label"),
+                (systemPrompt, prompt) -> {
+                    throw new IllegalStateException("executor shut down");
+                });
+        CompletableFuture<String> first = batcher.submit("tenant", "system", "a");
+        CompletableFuture<String> second = batcher.submit("tenant", "system", "b");
+        assertNull(first.get(1, TimeUnit.SECONDS));
+        assertNull(second.get(1, TimeUnit.SECONDS));
+        // A lone prompt goes out as a single call
+        assertEquals(Collections.singletonList(null),
+                batcher.classifyAll("system", Collections.singletonList("c")).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void throwingParserFallsBackToSingleCalls() throws Exception {
+        batcher = new ClassificationBatcher(10_000, 2,
+                (systemPrompt, prompts) -> CompletableFuture.completedFuture("ok"),
+                (response, count) -> {
+                    throw new IllegalStateException("not JSON");
+                },
+                (systemPrompt, prompt) -> CompletableFuture.completedFuture("single"));
+        CompletableFuture<String> first = batcher.submit("tenant", "system", "a");
+        CompletableFuture<String> second = batcher.submit("tenant", "system", "b");
+        assertEquals("single", first.get(1, TimeUnit.SECONDS));
+        assertEquals("single", second.get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventStreamDataSourceTest {
+
+    private static final String EVENTS = "data: {\"id\":1}\n\ndata: [DONE]\n\n";
+
+    @Test
+    public void copiesEventsAndClosesUpstream() throws IOException {
+        TrackingStream upstream = new TrackingStream(EVENTS);
+        ByteArrayOutputStream client = new ByteArrayOutputStream();
+        new EventStreamDataSource(upstream).newDataHandler().writeTo(client);
+        assertEquals(EVENTS, client.toString(StandardCharsets.UTF_8.name()));
+        assertTrue(upstream.closed);
+    }
+
+    @Test
+    public void closesUpstreamWhenClientDisconnects() {
+        TrackingStream upstream = new TrackingStream(EVENTS);
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        try {
+            new EventStreamDataSource(upstream).newDataHandler().writeTo(disconnected);
+            fail("Expected the client's write error");
+        } catch (IOException e) {
+            assertEquals("Broken pipe", e.getMessage());
+        }
+        assertTrue(upstream.closed);
+    }
+
+    private static final class TrackingStream extends ByteArrayInputStream {
+
+        private boolean closed;
+
+        TrackingStream(String content) {
+            super(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
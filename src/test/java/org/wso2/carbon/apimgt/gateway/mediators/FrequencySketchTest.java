@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrequencySketchTest {
+
+    @Test
+    public void countsIncrements() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        assertEquals(0, sketch.frequency("a"));
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("a");
+        }
+        assertEquals(5, sketch.frequency("a"));
+    }
+
+    @Test
+    public void frequencyIsCappedAtFifteen() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 40; i++) {
+            sketch.increment("a");
+        }
+        assertEquals(15, sketch.frequency("a"));
+    }
+
+    @Test
+    public void neverUnderestimates() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int key = 0; key < 200; key++) {
+            for (int i = 0; i < key % 7; i++) {
+                sketch.increment(key);
+            }
+        }
+        for (int key = 0; key < 200; key++) {
+            assertTrue(sketch.frequency(key) >= key % 7);
+        }
+    }
+
+    @Test
+    public void countsAreHalvedAfterSamplePeriod() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("hot");
+        }
+        // The 64-counter table is aged after 640 increments
+        for (int key = 0; key < 640; key++) {
+            sketch.increment(key);
+        }
+        assertTrue(sketch.frequency("hot") < 8);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HealthProberTest {
+
+    private static HealthProber prober(int failureThreshold) {
+        TransformConfig config = TransformConfig.parse("{\"healthProbeFailureThreshold\":" + failureThreshold + "}");
+        return new HealthProber("http://localhost:1/v1/models", Collections.emptyList(), config);
+    }
+
+    @Test
+    public void staysAvailableUntilThresholdIsReached() {
+        HealthProber prober = prober(3);
+        assertFalse(prober.onProbeResult(503, null));
+        assertFalse(prober.onProbeResult(0, new IOException("refused")));
+        assertTrue(prober.isAvailable());
+        prober.onProbeResult(502, null);
+        assertFalse(prober.isAvailable());
+        assertEquals(3, prober.getSnapshot().getConsecutiveFailures());
+    }
+
+    @Test
+    public void answerResetsFailureCount() {
+        HealthProber prober = prober(2);
+        prober.onProbeResult(500, null);
+        prober.onProbeResult(200, null);
+        prober.onProbeResult(500, null);
+        assertTrue(prober.isAvailable());
+        assertEquals(1, prober.getSnapshot().getConsecutiveFailures());
+    }
+
+    @Test
+    public void throttledOrUnauthorizedEndpointIsReachable() {
+        HealthProber prober = prober(1);
+        assertTrue(prober.onProbeResult(429, null));
+        assertTrue(prober.onProbeResult(401, null));
+        assertTrue(prober.isAvailable());
+    }
+
+    @Test
+    public void recoversOnFirstAnswer() {
+        HealthProber prober = prober(1);
+        prober.onProbeResult(503, null);
+        assertFalse(prober.isAvailable());
+        prober.onProbeResult(200, null);
+        assertTrue(prober.isAvailable());
+        assertEquals(200, prober.getSnapshot().getStatusCode());
+    }
+
+    @Test
+    public void probeThatCannotBeSentCountsAsFailure() throws InterruptedException {
+        TransformConfig config = TransformConfig.parse(
+                "{\"healthProbeFailureThreshold\":2,\"healthProbeRetryMillis\":10}");
+        HealthProber prober = HealthProber.acquire("http://not a valid url/v1/models", Collections.emptyList(),
+                config);
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (prober.isAvailable() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(prober.isAvailable());
+        } finally {
+            HealthProber.release(prober);
+        }
+    }
+}
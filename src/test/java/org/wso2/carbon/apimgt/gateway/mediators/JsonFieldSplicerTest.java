@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JsonFieldSplicerTest {
+
+    private static final byte[] FORCED = "\"forced\"".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void findsTopLevelValueAfterNestedOne() {
+        byte[] json = bytes("{\"messages\":[{\"model\":\"nested\",\"content\":\"a \\\"} b\"}], \"model\" : \"gpt-4\"}");
+        int[] span = JsonFieldSplicer.findTopLevelValue(json, json.length, "model");
+        assertEquals("\"gpt-4\"", new String(json, span[0], span[1] - span[0], StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void reportsAbsentAndMalformed() {
+        byte[] absent = bytes("{\"messages\":[]}");
+        assertArrayEquals(new int[]{-1, -1}, JsonFieldSplicer.findTopLevelValue(absent, absent.length, "model"));
+        byte[] empty = bytes(" { } ");
+        assertArrayEquals(new int[]{-1, -1}, JsonFieldSplicer.findTopLevelValue(empty, empty.length, "model"));
+        byte[] array = bytes("[{\"model\":\"gpt-4\"}]");
+        assertNull(JsonFieldSplicer.findTopLevelValue(array, array.length, "model"));
+        byte[] truncated = bytes("{\"messages\":[{\"content\":\"hi\"}");
+        assertNull(JsonFieldSplicer.findTopLevelValue(truncated, truncated.length, "model"));
+    }
+
+    @Test
+    public void replacesValueInPlace() throws IOException {
+        assertEquals("{\"messages\":[],\"model\":\"forced\",\"stream\":true}",
+                replace("{\"messages\":[],\"model\":\"gpt-4\",\"stream\":true}"));
+        assertEquals("{\"model\":\"forced\"}", replace("{\"model\":null}"));
+    }
+
+    @Test
+    public void insertsAbsentFieldFirst() throws IOException {
+        assertEquals("{\"model\":\"forced\",\"messages\":[]}", replace("{\"messages\":[]}"));
+        assertEquals("{\"model\":\"forced\"}", replace("{}"));
+    }
+
+    @Test
+    public void refusesDuplicateKeys() throws IOException {
+        assertNull(replace("{\"model\":\"forced-too\",\"messages\":[],\"model\":\"gpt-4\"}"));
+    }
+
+    @Test
+    public void refusesEscapedKeys() throws IOException {
+        assertNull(replace("{\"mod\\u0065l\":\"gpt-4\",\"messages\":[]}"));
+        assertNull(replace("{\"model\":\"gpt-4\",\"mess\\u0061ges\":[]}"));
+    }
+
+    @Test
+    public void allowsEscapesInValues() throws IOException {
+        assertEquals("{\"prompt\":\"say \\\"model\\\"\",\"model\":\"forced\"}",
+                replace("{\"prompt\":\"say \\\"model\\\"\",\"model\":\"gpt-4\"}"));
+    }
+
+    private static String replace(String json) throws IOException {
+        try (InputStream rewritten = JsonFieldSplicer.replaceTopLevelValue(bytes(json), "model", FORCED)) {
+            return rewritten != null ? new String(rewritten.readAllBytes(), StandardCharsets.UTF_8) : null;
+        }
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
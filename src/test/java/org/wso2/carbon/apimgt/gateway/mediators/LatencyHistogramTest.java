@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void smallValuesHaveTheirOwnBucket() {
+        for (int micros = 0; micros < 64; micros++) {
+            assertEquals(micros, LatencyHistogram.bucketOf(micros));
+            assertEquals(micros, LatencyHistogram.representativeMicros(micros));
+        }
+    }
+
+    @Test
+    public void bucketsAreOrderedAndAccurate() {
+        int previous = -1;
+        for (long micros = 1; micros < 1L << 32; micros += Math.max(1, micros / 50)) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            assertTrue(bucket >= previous);
+            previous = bucket;
+            long representative = LatencyHistogram.representativeMicros(bucket);
+            assertTrue("bucket of " + micros + " represented by " + representative,
+                    Math.abs(representative - micros) <= micros * 0.02);
+        }
+    }
+
+    @Test
+    public void valuesBeyondRangeShareLastBucket() {
+        int last = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+        assertEquals(last, LatencyHistogram.bucketOf(1L << 40));
+        assertEquals(last, LatencyHistogram.bucketOf(TimeUnit.HOURS.toMicros(5)));
+    }
+
+    @Test
+    public void percentilesDescribeLastCompleteInterval() {
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        long start = System.nanoTime();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis), start);
+        }
+        assertEquals(0, histogram.getIntervalCount());
+        // The first sample of the next interval completes this one
+        histogram.record(TimeUnit.SECONDS.toNanos(5), start + INTERVAL_NANOS);
+        assertEquals(100, histogram.getIntervalCount());
+        assertEquals(101, histogram.getCount());
+        assertEquals(50, histogram.getPercentileMillis(50), 1);
+        assertEquals(99, histogram.getPercentileMillis(99), 2);
+        assertEquals(100, histogram.getMaxMillis(), 2);
+        assertEquals(5050 + 5000, histogram.getTotalMillis(), 0.001);
+    }
+
+    @Test
+    public void idleIntervalReportsNothing() {
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        long start = System.nanoTime();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10), start);
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10), start + 2 * INTERVAL_NANOS);
+        assertEquals(0, histogram.getIntervalCount());
+        assertEquals(0, histogram.getPercentileMillis(99), 0);
+        assertEquals(0, histogram.getMaxMillis(), 0);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LlmBackendTest {
+
+    private static final String COMPLETIONS_URL = "http://llm.example/v1/chat/completions";
+
+    private static TransformConfig.BackendConfig backend(String json) {
+        return TransformConfig.parse("{\"backends\":[" + json + "]}").getBackends().get(0);
+    }
+
+    private static OpenAiCompatibleBackend openAi(String extra) {
+        return (OpenAiCompatibleBackend) LlmBackend.create(backend("{\"name\":\"local\",\"type\":\"openai-compatible\","
+                + "\"model\":\"m\",\"url\":\"" + COMPLETIONS_URL + "\"" + extra + "}"));
+    }
+
+    @Test
+    public void createsBackendByType() {
+        assertTrue(LlmBackend.create(backend("{}")) instanceof MistralBackend);
+        assertTrue(LlmBackend.create(backend("{\"type\":\"mistral\"}")) instanceof MistralBackend);
+        assertEquals(OpenAiCompatibleBackend.class, openAi("").getClass());
+        assertEquals(MistralBackend.class, LlmBackend.create(backend(
+                "{\"type\":\"" + MistralBackend.class.getName() + "\"}")).getClass());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownType() {
+        LlmBackend.create(backend("{\"name\":\"x\",\"type\":\"no.such.Backend\"}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOpenAiCompatibleBackendWithoutModel() {
+        LlmBackend.create(backend("{\"name\":\"x\",\"type\":\"openai-compatible\",\"url\":\"" + COMPLETIONS_URL
+                + "\"}"));
+    }
+
+    @Test
+    public void mistralBackendFillsInDefaults() {
+        LlmBackend mistral = LlmBackend.create(backend("{}"));
+        assertEquals("mistral", mistral.getName());
+        assertEquals("mistral-large-latest", mistral.getModel());
+        assertEquals("https://api.mistral.ai/v1/chat/completions", mistral.getCompletionsUrl());
+        assertEquals(Collections.singletonList(mistral.getCompletionsUrl()), mistral.getCompletionsUrls());
+        assertEquals("https://api.mistral.ai/v1/models", mistral.getHealthCheckUrl());
+    }
+
+    @Test
+    public void derivesHealthCheckUrlOnlyFromCompletionsPath() {
+        assertEquals("http://llm.example/v1/models", openAi("").getHealthCheckUrl());
+        assertNull(LlmBackend.create(backend("{\"name\":\"x\",\"type\":\"openai-compatible\",\"model\":\"m\","
+                + "\"url\":\"http://llm.example/generate\"}")).getHealthCheckUrl());
+        assertEquals("http://llm.example/health",
+                openAi(",\"healthCheckUrl\":\"http://llm.example/health\"").getHealthCheckUrl());
+    }
+
+    @Test
+    public void sendsBearerKeyAndNoHeaderWithoutKey() {
+        assertEquals(Collections.singletonMap("Authorization", "Bearer secret"),
+                openAi(",\"apiKey\":\"secret\"").getAuthHeaders());
+        assertTrue(openAi("").getAuthHeaders().isEmpty());
+        assertTrue(openAi(",\"apiKey\":\"\"").getAuthHeaders().isEmpty());
+    }
+
+    @Test
+    public void buildsOneCredentialPerKey() {
+        LlmBackend pooled = openAi(",\"apiKey\":\"ignored\",\"apiKeys\":[\"a\",\"b\"]");
+        assertEquals(Arrays.asList(Collections.singletonMap("Authorization", "Bearer a"),
+                Collections.singletonMap("Authorization", "Bearer b")), pooled.getCredentials());
+        assertEquals(pooled.getCredentials().get(0), pooled.getAuthHeaders());
+    }
+
+    @Test
+    public void buildsRequestBody() {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "user");
+        message.addProperty("content", "hi");
+
+        JsonObject full = openAi("").buildRequestBody(0.0, 64, true, true, message);
+        assertEquals("m", full.get("model").getAsString());
+        assertEquals(0.0, full.get("temperature").getAsDouble(), 0);
+        assertEquals(64, full.get("max_tokens").getAsInt());
+        assertEquals(message, full.getAsJsonArray("messages").get(0));
+        assertTrue(full.get("stream").getAsBoolean());
+        assertEquals("json_object", full.getAsJsonObject("response_format").get("type").getAsString());
+
+        JsonObject minimal = openAi("").buildRequestBody(null, null, false, false, message);
+        assertFalse(minimal.has("temperature"));
+        assertFalse(minimal.has("max_tokens"));
+        assertFalse(minimal.has("stream"));
+        assertFalse(minimal.has("response_format"));
+    }
+
+    @Test
+    public void parsesFirstChoiceContent() {
+        LlmBackend local = openAi("");
+        assertEquals("answer", local.parseContent(
+                "{\"choices\":[{\"message\":{\"content\":\"  answer\\n\"}},{\"message\":{\"content\":\"other\"}}]}"));
+        assertNull(local.parseContent("{\"choices\":[]}"));
+        assertNull(local.parseContent("{\"choices\":[{\"message\":{}}]}"));
+        assertNull(local.parseContent("not json"));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LoadBalancerTest {
+
+    private static final String FIRST = "http://first.example/v1/chat/completions";
+    private static final String SECOND = "http://second.example/v1/chat/completions";
+    private static final String THIRD = "http://third.example/v1/chat/completions";
+
+    private static LoadBalancer balancer(String... urls) {
+        return new LoadBalancer(Arrays.asList(urls), TransformConfig.parse(
+                "{\"outlierFailureRateThreshold\":50,\"outlierMinimumCalls\":5,\"outlierMaxEjectionPercent\":50}"));
+    }
+
+    /**
+     * Records an outcome on the given endpoint, releasing the picks of other endpoints without one. The latency is
+     * 0, so that latency does not steer the picks away from the endpoint.
+     */
+    private static void complete(LoadBalancer balancer, String url, boolean failed) {
+        while (true) {
+            LoadBalancer.Endpoint endpoint = balancer.choose();
+            if (endpoint.getUrl().equals(url)) {
+                balancer.onComplete(endpoint, 0, failed);
+                return;
+            }
+            balancer.onAbandoned(endpoint);
+        }
+    }
+
+    @Test
+    public void threeFailuresInFiveCallsEject() {
+        LoadBalancer balancer = balancer(FIRST, SECOND);
+        for (int i = 0; i < 20; i++) {
+            complete(balancer, FIRST, false);
+        }
+        complete(balancer, FIRST, true);
+        complete(balancer, FIRST, true);
+        assertTrue(balancer.getWeights().get(FIRST) > 0);
+        complete(balancer, FIRST, true);
+        assertEquals(0.0, balancer.getWeights().get(FIRST), 0.0);
+        assertEquals(1.0, balancer.getWeights().get(SECOND), 0.0);
+    }
+
+    @Test
+    public void noEjectionBeforeWindowIsFull() {
+        LoadBalancer balancer = balancer(FIRST, SECOND);
+        for (int i = 0; i < 4; i++) {
+            complete(balancer, FIRST, true);
+        }
+        assertTrue(balancer.getWeights().get(FIRST) > 0);
+        complete(balancer, FIRST, true);
+        assertEquals(0.0, balancer.getWeights().get(FIRST), 0.0);
+    }
+
+    @Test
+    public void failuresOutsideWindowAreForgotten() {
+        LoadBalancer balancer = balancer(FIRST, SECOND);
+        complete(balancer, FIRST, true);
+        complete(balancer, FIRST, true);
+        for (int i = 0; i < 5; i++) {
+            complete(balancer, FIRST, false);
+        }
+        complete(balancer, FIRST, true);
+        complete(balancer, FIRST, true);
+        assertTrue(balancer.getWeights().get(FIRST) > 0);
+    }
+
+    @Test
+    public void ejectionsAreCappedByMaxEjectionPercent() {
+        LoadBalancer balancer = balancer(FIRST, SECOND, THIRD);
+        for (String url : Arrays.asList(FIRST, SECOND, THIRD)) {
+            for (int i = 0; i < 5; i++) {
+                complete(balancer, url, true);
+            }
+        }
+        Map<String, Double> weights = balancer.getWeights();
+        long ejected = weights.values().stream().filter(weight -> weight == 0).count();
+        assertEquals(1, ejected);
+    }
+
+    @Test
+    public void choosePrefersEndpointsThatAreNotEjected() {
+        LoadBalancer balancer = balancer(FIRST, SECOND);
+        for (int i = 0; i < 5; i++) {
+            complete(balancer, FIRST, true);
+        }
+        for (int i = 0; i < 50; i++) {
+            LoadBalancer.Endpoint endpoint = balancer.choose();
+            assertEquals(SECOND, endpoint.getUrl());
+            balancer.onAbandoned(endpoint);
+        }
+    }
+
+    @Test
+    public void picksStayUniformAroundEjectedEndpoint() {
+        LoadBalancer balancer = balancer(FIRST, SECOND, THIRD);
+        for (int i = 0; i < 5; i++) {
+            complete(balancer, FIRST, true);
+        }
+        int second = 0;
+        int picks = 4000;
+        for (int i = 0; i < picks; i++) {
+            LoadBalancer.Endpoint endpoint = balancer.choose();
+            second += endpoint.getUrl().equals(SECOND) ? 1 : 0;
+            balancer.onAbandoned(endpoint);
+        }
+        // The endpoint after the ejected one used to get two thirds of the picks
+        assertTrue(second > picks * 0.45 && second < picks * 0.55);
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.commons.json.JsonUtil;
+import org.apache.synapse.config.SynapseConfiguration;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.apache.synapse.rest.RESTConstants;
+import org.apache.synapse.transport.passthru.PassThroughConstants;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives {@link TransformMediator#mediate} end to end with synthetic Axis2 message contexts against an in-process
+ * {@link MistralStandInServer}. The load runs in steps of 1, 2, 4 and so on up to the maximum number of worker
+ * threads, each thread mediating one request after another, which is how the blocking design uses the gateway's
+ * worker pool. Every step reports throughput, latency percentiles, live threads, CPU time and the bytes allocated
+ * per request, so the step where throughput stops growing and latency takes off is plain to see.
+ *
+ * <p>Needs the gateway runtime on the classpath (Synapse, Axis2, Axiom and the API Manager gateway), plus
+ * HdrHistogram. Arguments are {@code name=value} pairs:
+ * <ul>
+ *     <li>{@code maxThreads}: largest step, default 1024</li>
+ *     <li>{@code seconds} and {@code warmupSeconds}: length of each step and of the warm-up before it</li>
+ *     <li>{@code shape}: {@link PayloadCorpus.Shape} of the client payload, default {@code SINGLE_PROMPT}</li>
+ *     <li>{@code latencyMillis}, {@code latencyP99Millis} and {@code tokensPerSecond}: behaviour of the stand-in
+ *     server</li>
+ *     <li>{@code config}: JSON object merged over the {@code transformConfigs} of the mediator, for example
+ *     {@code {"maxConnectionsPerRoute":200}}</li>
+ * </ul>
+ * Allocations are those of every thread except the stand-in server's, and include building the synthetic context.
+ * Each worker adds up its own allocations before it exits; the mediator's threads are compared before and after the
+ * step, so one that ends during the step is not counted.
+ */
+public final class MediationThroughputHarness {
+
+    private static final String API_CONTEXT = "/chat";
+    private static final String API_VERSION = "1.0.0";
+    private static final String STAND_IN_THREAD_PREFIX = "mistral-stand-in-";
+    private static final String WORKER_THREAD_PREFIX = "mediation-worker-";
+    // Latencies are recorded in microseconds, up to an hour
+    private static final long MAX_LATENCY_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final TransformMediator mediator;
+    private final byte[] payload;
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final com.sun.management.OperatingSystemMXBean osBean =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private MediationThroughputHarness(TransformMediator mediator, byte[] payload) {
+        this.mediator = mediator;
+        this.payload = payload;
+    }
+
+    /**
+     * Outcome of one load step.
+     */
+    private static final class StepResult {
+
+        private long completed;
+        private long failed;
+        private double seconds;
+        private Histogram latencies;
+        private int peakThreads;
+        private long cpuNanos;
+        private long allocatedBytes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = parseArguments(args);
+        int maxThreads = Integer.parseInt(arguments.getOrDefault("maxThreads", "1024"));
+        long seconds = Long.parseLong(arguments.getOrDefault("seconds", "10"));
+        long warmupSeconds = Long.parseLong(arguments.getOrDefault("warmupSeconds", "3"));
+        PayloadCorpus.Shape shape = PayloadCorpus.Shape.valueOf(arguments.getOrDefault("shape", "SINGLE_PROMPT"));
+        long latencyMillis = Long.parseLong(arguments.getOrDefault("latencyMillis", "200"));
+        long latencyP99Millis = Long.parseLong(arguments.getOrDefault("latencyP99Millis", "800"));
+
+        try (MistralStandInServer server = MistralStandInServer.builder()
+                .latency(MistralStandInServer.Latency.logNormal(latencyMillis, latencyP99Millis))
+                .tokensPerSecond(Double.parseDouble(arguments.getOrDefault("tokensPerSecond", "0")))
+                .start()) {
+            TransformMediator mediator = new TransformMediator();
+            mediator.setTransformConfigs(transformConfigs(server, arguments.get("config")));
+            mediator.init(null);
+            try {
+                MediationThroughputHarness harness = new MediationThroughputHarness(mediator,
+                        PayloadCorpus.request(shape));
+                System.out.printf("Mediating %s payloads of %d bytes against %s%n", shape,
+                        harness.payload.length, server.getCompletionsUrl());
+                System.out.printf("%8s %10s %8s %9s %9s %9s %9s %9s %8s %10s %12s%n", "threads", "req/s",
+                        "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "live thr", "cpu us/req",
+                        "bytes/req");
+                for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                    harness.runStep(threads, TimeUnit.SECONDS.toNanos(warmupSeconds));
+                    print(threads, harness.runStep(threads, TimeUnit.SECONDS.toNanos(seconds)));
+                }
+            } finally {
+                mediator.destroy();
+            }
+        }
+    }
+
+    /**
+     * Runs the given number of workers for the given time, each mediating requests back to back.
+     */
+    private StepResult runStep(int threads, long durationNanos) throws InterruptedException {
+        Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        LongAdder workerAllocatedBytes = new LongAdder();
+        long[] endAt = new long[1];
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                long allocatedAtStart = -1;
+                try {
+                    start.await();
+                    allocatedAtStart = threadBean.getCurrentThreadAllocatedBytes();
+                    while (System.nanoTime() - endAt[0] < 0) {
+                        long begin = System.nanoTime();
+                        boolean mediated = mediator.mediate(createMessageContext());
+                        recorder.recordValue(Math.min(MAX_LATENCY_MICROS,
+                                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin)));
+                        (mediated ? completed : failed).incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    // Measured here, since the bean knows nothing of a thread once it has ended
+                    if (allocatedAtStart >= 0) {
+                        workerAllocatedBytes.add(threadBean.getCurrentThreadAllocatedBytes() - allocatedAtStart);
+                    }
+                    done.countDown();
+                }
+            }, WORKER_THREAD_PREFIX + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        Map<Long, Long> allocatedBefore = allocatedBytesByThread();
+        long cpuBefore = osBean.getProcessCpuTime();
+        threadBean.resetPeakThreadCount();
+        long begin = System.nanoTime();
+        endAt[0] = begin + durationNanos;
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        StepResult result = new StepResult();
+        result.completed = completed.get();
+        result.failed = failed.get();
+        result.seconds = elapsed / 1e9;
+        result.latencies = recorder.getIntervalHistogram();
+        result.peakThreads = threadBean.getPeakThreadCount();
+        result.cpuNanos = osBean.getProcessCpuTime() - cpuBefore;
+        result.allocatedBytes = workerAllocatedBytes.sum() + allocatedSince(allocatedBefore);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return result;
+    }
+
+    /**
+     * Builds the message context of a fresh client request, with its JSON payload already built as the
+     * pass-through transport leaves it after {@code RelayUtils.buildMessage}.
+     */
+    private MessageContext createMessageContext() {
+        try {
+            org.apache.axis2.context.MessageContext axis2MessageContext = new org.apache.axis2.context.MessageContext();
+            axis2MessageContext.setEnvelope(OMAbstractFactory.getSOAP11Factory().getDefaultEnvelope());
+            Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.put("Content-Type", "application/json");
+            axis2MessageContext.setProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS, headers);
+            axis2MessageContext.setProperty(org.apache.axis2.Constants.Configuration.MESSAGE_TYPE, "application/json");
+            axis2MessageContext.setProperty(org.apache.axis2.Constants.Configuration.CONTENT_TYPE, "application/json");
+            JsonUtil.getNewJsonPayload(axis2MessageContext, new ByteArrayInputStream(payload), true, true);
+            axis2MessageContext.setProperty(PassThroughConstants.MESSAGE_BUILDER_INVOKED, Boolean.TRUE);
+
+            Axis2MessageContext messageContext = new Axis2MessageContext(axis2MessageContext,
+                    new SynapseConfiguration(), null);
+            messageContext.setProperty(RESTConstants.REST_API_CONTEXT, API_CONTEXT);
+            messageContext.setProperty(RESTConstants.SYNAPSE_REST_API_VERSION, API_VERSION);
+            return messageContext;
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to build synthetic message context", e);
+        }
+    }
+
+    private Map<Long, Long> allocatedBytesByThread() {
+        Map<Long, Long> allocated = new HashMap<>();
+        for (ThreadInfo thread : threadBean.getThreadInfo(threadBean.getAllThreadIds())) {
+            if (thread != null && !thread.getThreadName().startsWith(STAND_IN_THREAD_PREFIX)
+                    && !thread.getThreadName().startsWith(WORKER_THREAD_PREFIX)) {
+                allocated.put(thread.getThreadId(), threadBean.getThreadAllocatedBytes(thread.getThreadId()));
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Sums what every thread other than the workers still alive allocated since the snapshot; threads started since
+     * count in full.
+     */
+    private long allocatedSince(Map<Long, Long> before) {
+        long total = 0;
+        for (Map.Entry<Long, Long> thread : allocatedBytesByThread().entrySet()) {
+            total += Math.max(0, thread.getValue() - before.getOrDefault(thread.getKey(), 0L));
+        }
+        return total;
+    }
+
+    /**
+     * Points the mediator at the stand-in server and merges the extra configuration over it.
+     */
+    private static String transformConfigs(MistralStandInServer server, String extraConfig) {
+        JsonObject backend = new JsonObject();
+        backend.addProperty("name", "stand-in");
+        backend.addProperty("type", "mistral");
+        backend.addProperty("url", server.getCompletionsUrl());
+        JsonArray backends = new JsonArray();
+        backends.add(backend);
+        JsonObject config = new JsonObject();
+        config.add("backends", backends);
+        if (extraConfig != null) {
+            for (Map.Entry<String, JsonElement> entry : JsonParser.parseString(extraConfig).getAsJsonObject()
+                    .entrySet()) {
+                config.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return config.toString();
+    }
+
+    private static void print(int threads, StepResult result) {
+        long requests = Math.max(1, result.completed + result.failed);
+        Histogram latencies = result.latencies;
+        System.out.printf("%8d %10.1f %8d %9.1f %9.1f %9.1f %9.1f %9.1f %8d %10.1f %12d%n", threads,
+                result.completed / result.seconds, result.failed, latencies.getValueAtPercentile(50) / 1e3,
+                latencies.getValueAtPercentile(90) / 1e3, latencies.getValueAtPercentile(99) / 1e3,
+                latencies.getValueAtPercentile(99.9) / 1e3, latencies.getMaxValue() / 1e3, result.peakThreads,
+                result.cpuNanos / 1e3 / requests, result.allocatedBytes / requests);
+    }
+
+    private static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> arguments = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected name=value but got " + arg);
+            }
+            arguments.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MistralServiceTest {
+
+    private static MistralService service(String config) {
+        return new MistralService(TransformConfig.parse(config));
+    }
+
+    /**
+     * Service calling the stand-in server, with the given settings added to the configuration.
+     */
+    private static MistralService service(MistralStandInServer server, String settings) {
+        TransformConfig config = TransformConfig.parse("{\"healthProbeEnabled\":false," + settings
+                + "\"backends\":[{\"name\":\"stand-in\",\"url\":\"" + server.getCompletionsUrl()
+                + "\",\"apiKey\":\"test-key\"}]}");
+        return new MistralService(config, LlmBackend.create(config.getBackends().get(0)));
+    }
+
+    @Test
+    public void cacheKeyFollowsScopeAndPrompt() {
+        try (MistralService service = service("{\"healthProbeEnabled\":false}")) {
+            String key = service.getResponseCacheKey("/chat/1.0.0", "Hello");
+            assertEquals(64, key.length());
+            assertEquals(key, service.getResponseCacheKey("/chat/1.0.0", "Hello"));
+            assertNotEquals(key, service.getResponseCacheKey("/other/1.0.0", "Hello"));
+            assertNotEquals(key, service.getResponseCacheKey("/chat/1.0.0", "Hello!"));
+        }
+    }
+
+    @Test
+    public void cacheKeyFollowsTemperatureSent() {
+        try (MistralService warm = service("{\"healthProbeEnabled\":false}");
+             MistralService greedy = service("{\"healthProbeEnabled\":false,\"completionTemperature\":0}")) {
+            assertFalse(warm.isDeterministic());
+            assertTrue(greedy.isDeterministic());
+            assertNotEquals(warm.getResponseCacheKey("/chat/1.0.0", "Hello"),
+                    greedy.getResponseCacheKey("/chat/1.0.0", "Hello"));
+        }
+    }
+
+    @Test
+    public void classifiesAgainstStandInServer() throws IOException {
+        try (MistralStandInServer server = MistralStandInServer.builder().content("billing").start();
+             MistralService service = service(server, "")) {
+            assertEquals("billing", service.classifyRequest("Why was I charged twice?"));
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void serverErrorsAreRetried() throws IOException {
+        try (MistralStandInServer server = MistralStandInServer.builder().errorRate(1, 503).start();
+             MistralService service = service(server,
+                     "\"upstreamMaxRetries\":2,\"upstreamRetryBackoffMillis\":1,")) {
+            assertNull(service.classifyRequest("Hello"));
+            assertEquals(3, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void openCircuitStopsCallingUpstream() throws IOException {
+        try (MistralStandInServer server = MistralStandInServer.builder().errorRate(1, 500).start();
+             MistralService service = service(server, "\"upstreamMaxRetries\":0,\"circuitBreakerWindowSize\":2,"
+                     + "\"circuitBreakerMinimumCalls\":2,\"circuitBreakerOpenDurationMillis\":60000,")) {
+            assertNull(service.classifyRequest("Hello"));
+            assertNull(service.classifyRequest("Hello again"));
+            assertFalse(service.isCallPermitted());
+            assertNull(service.classifyRequest("Hello once more"));
+            assertEquals(2, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void hungUpstreamTimesOutWithoutDeadline() throws IOException {
+        try (MistralStandInServer server = MistralStandInServer.builder()
+                .latency(MistralStandInServer.Latency.fixed(5000)).start();
+             MistralService service = service(server, "\"upstreamMaxRetries\":0,\"readTimeoutMillis\":200,")) {
+            long start = System.nanoTime();
+            assertNull(service.classifyRequest("Hello"));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        }
+    }
+
+    @Test
+    public void deadlineCapsBlockingReadTimeout() throws IOException {
+        try (MistralStandInServer server = MistralStandInServer.builder()
+                .latency(MistralStandInServer.Latency.fixed(5000)).start();
+             MistralService service = service(server, "\"upstreamMaxRetries\":0,")) {
+            long start = System.nanoTime();
+            assertNull(service.getFullJsonResponse("Hello", RequestDeadline.after(300), null));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void deadlineCapsAsyncRequestTimeout() throws Exception {
+        try (MistralStandInServer server = MistralStandInServer.builder()
+                .latency(MistralStandInServer.Latency.fixed(5000)).start();
+             MistralService service = service(server, "\"upstreamMaxRetries\":0,")) {
+            long start = System.nanoTime();
+            assertNull(service.getFullJsonResponseAsync("Hello", RequestDeadline.after(300), null)
+                    .get(3, TimeUnit.SECONDS));
+            assertNull(service.getStreamingResponseAsync("Hello", RequestDeadline.after(300))
+                    .get(3, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4));
+        }
+    }
+
+    @Test
+    public void expiredDeadlineIsNotSentUpstream() throws Exception {
+        try (MistralStandInServer server = MistralStandInServer.builder().start();
+             MistralService service = service(server, "")) {
+            RequestDeadline expired = RequestDeadline.after(1);
+            Thread.sleep(20);
+            assertNull(service.getFullJsonResponse("Hello", expired, null));
+            assertNull(service.getFullJsonResponseAsync("Hello", expired, null).get(3, TimeUnit.SECONDS));
+            assertNull(service.getStreamingResponseAsync("Hello", expired).get(3, TimeUnit.SECONDS));
+            assertEquals(0, server.getRequestCount());
+        }
+    }
+}
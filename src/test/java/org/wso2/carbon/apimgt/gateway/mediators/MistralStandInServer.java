@@ -0,0 +1,707 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for Mistral's chat-completions API, for exercising {@link MistralService} and the
+ * {@link TransformMediator} offline. It answers {@code POST /v1/chat/completions}, plain or streamed as server-sent
+ * events, and {@code GET /v1/models}, with a configurable time to first token, generation speed, injected errors,
+ * throttling and connection resets, and an optional per-key request quota reported through the usual rate-limit
+ * headers. Random choices are drawn from a generator seeded with the seed and the request's arrival number, so a
+ * sequential run is reproducible. Under concurrency the arrival order is up to the scheduler: the mix of outcomes
+ * stays the same, but which call gets which outcome does not.
+ *
+ * <p>Point a backend at it with {@code "url": "http://127.0.0.1:<port>/v1/chat/completions"}, or run it on its own
+ * with {@code java ... MistralStandInServer port=8089 latencyMillis=200 tokensPerSecond=50}; see {@link #main}.
+ */
+public final class MistralStandInServer implements Closeable {
+
+    private static final Log log = LogFactory.getLog(MistralStandInServer.class);
+
+    private static final String COMPLETIONS_PATH = "/v1/chat/completions";
+    private static final String MODELS_PATH = "/v1/models";
+    private static final int MAX_HEADER_LINE = 8192;
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Distribution of the time a response waits before its first token.
+     */
+    public interface Latency {
+
+        long sampleMillis(Random random);
+
+        static Latency fixed(long millis) {
+            return random -> millis;
+        }
+
+        static Latency uniform(long minMillis, long maxMillis) {
+            return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+        }
+
+        /**
+         * Long-tailed latency as seen from hosted models, given by its median and 99th percentile.
+         */
+        static Latency logNormal(long medianMillis, long p99Millis) {
+            // 2.326 is the standard normal quantile of the 99th percentile
+            double sigma = Math.log((double) Math.max(p99Millis, medianMillis) / Math.max(1, medianMillis)) / 2.326;
+            return random -> (long) (medianMillis * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    /**
+     * Behaviour of a stand-in server. Rates are fractions of requests between 0 and 1.
+     */
+    public static final class Builder {
+
+        private int port;
+        private Latency latency = Latency.fixed(0);
+        private double tokensPerSecond;
+        private int completionTokens = 16;
+        private String content;
+        private double errorRate;
+        private int errorStatus = 500;
+        private double throttleRate;
+        private int retryAfterSeconds = 1;
+        private double resetRate;
+        private int requestsPerMinute;
+        private long seed = 42;
+
+        private Builder() {
+        }
+
+        /**
+         * Port to listen on; 0, the default, picks a free one.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder latency(Latency latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Generation speed of the completion; 0, the default, answers at once after the latency.
+         */
+        public Builder tokensPerSecond(double tokensPerSecond) {
+            this.tokensPerSecond = tokensPerSecond;
+            return this;
+        }
+
+        /**
+         * Length of the generated completion when no fixed content is set.
+         */
+        public Builder completionTokens(int completionTokens) {
+            this.completionTokens = completionTokens;
+            return this;
+        }
+
+        /**
+         * Fixed completion text, such as the JSON the transform prompts expect; streamed word by word.
+         */
+        public Builder content(String content) {
+            this.content = content;
+            return this;
+        }
+
+        public Builder errorRate(double errorRate, int errorStatus) {
+            this.errorRate = errorRate;
+            this.errorStatus = errorStatus;
+            return this;
+        }
+
+        /**
+         * Share of requests answered with a 429 regardless of the quota.
+         */
+        public Builder throttleRate(double throttleRate, int retryAfterSeconds) {
+            this.throttleRate = throttleRate;
+            this.retryAfterSeconds = retryAfterSeconds;
+            return this;
+        }
+
+        /**
+         * Share of requests whose connection is reset: before the response for plain completions, half way through
+         * the stream for streamed ones.
+         */
+        public Builder resetRate(double resetRate) {
+            this.resetRate = resetRate;
+            return this;
+        }
+
+        /**
+         * Quota per API key and minute, reported in {@code x-ratelimit-*} headers and enforced with 429s; 0, the
+         * default, means unlimited.
+         */
+        public Builder requestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Starts a server listening on the loopback interface.
+         */
+        public MistralStandInServer start() throws IOException {
+            return new MistralStandInServer(this);
+        }
+    }
+
+    /**
+     * Requests of one API key in the current quota window.
+     */
+    private static final class QuotaWindow {
+
+        private long startMillis;
+        private int used;
+    }
+
+    private final Builder options;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionExecutor;
+    private final Map<String, QuotaWindow> quotaWindows = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong completionIds = new AtomicLong();
+    private volatile boolean closed;
+
+    private MistralStandInServer(Builder options) throws IOException {
+        this.options = options;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), options.port), 1024);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.connectionExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mistral-stand-in-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        connectionExecutor.execute(this::acceptConnections);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * URL to configure as a backend's completions URL.
+     */
+    public String getCompletionsUrl() {
+        return "http://127.0.0.1:" + getPort() + COMPLETIONS_PATH;
+    }
+
+    /**
+     * Completion requests received, including those answered with an injected failure.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    public long getThrottledCount() {
+        return throttled.get();
+    }
+
+    public long getResetCount() {
+        return resets.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        connectionExecutor.shutdownNow();
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                int connectionId = connectionCount.incrementAndGet();
+                connectionExecutor.execute(() -> serveConnection(socket, connectionId));
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Stand-in server failed to accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Serves the requests of one keep-alive connection in turn.
+     */
+    private void serveConnection(Socket socket, int connectionId) {
+        try (Socket connection = socket) {
+            InputStream in = new BufferedInputStream(connection.getInputStream());
+            OutputStream out = connection.getOutputStream();
+            boolean keepAlive = true;
+            while (keepAlive && !closed) {
+                String requestLine = readLine(in);
+                if (requestLine == null) {
+                    return;
+                }
+                Map<String, String> headers = readHeaders(in);
+                byte[] body = readBody(in, headers);
+                keepAlive = !"close".equalsIgnoreCase(headers.get("connection"));
+                keepAlive &= handle(requestLine, headers, body, connection, out);
+                out.flush();
+            }
+        } catch (SocketException e) {
+            // The client went away
+        } catch (IOException | RuntimeException e) {
+            // A malformed request drops its connection rather than the thread serving it
+            if (!closed && log.isDebugEnabled()) {
+                log.debug("Stand-in server connection " + connectionId + " failed", e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Answers one request.
+     *
+     * @return {@code false} when the connection must not be reused
+     */
+    private boolean handle(String requestLine, Map<String, String> headers, byte[] body, Socket connection,
+                           OutputStream out) throws IOException, InterruptedException {
+        String[] parts = requestLine.split(" ");
+        String method = parts[0];
+        String path = parts.length > 1 ? parts[1] : "";
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        if ("GET".equals(method) && MODELS_PATH.equals(path)) {
+            writeJson(out, 200, new LinkedHashMap<>(), "{\"object\":\"list\","
+                    + "\"data\":[{\"id\":\"mistral-large-latest\",\"object\":\"model\",\"owned_by\":\"mistralai\"}]}");
+            return true;
+        }
+        if (!"POST".equals(method) || !COMPLETIONS_PATH.equals(path)) {
+            writeJson(out, 404, new LinkedHashMap<>(), error("Not found", "not_found"));
+            return true;
+        }
+        Random random = new Random(options.seed * 31 + requests.incrementAndGet());
+
+        JsonObject request;
+        boolean stream;
+        String model;
+        try {
+            request = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+            JsonElement streamField = request.get("stream");
+            stream = streamField != null && !streamField.isJsonNull() && streamField.getAsBoolean();
+            JsonElement modelField = request.get("model");
+            model = modelField != null && !modelField.isJsonNull() ? modelField.getAsString() : "mistral-large-latest";
+        } catch (RuntimeException e) {
+            writeJson(out, 400, new LinkedHashMap<>(), error("Invalid JSON body", "invalid_request_error"));
+            return true;
+        }
+
+        Map<String, String> responseHeaders = new LinkedHashMap<>();
+        if (!takeQuota(headers.get("authorization"), responseHeaders)) {
+            throttled.incrementAndGet();
+            writeJson(out, 429, responseHeaders, error("Requests rate limit exceeded", "rate_limited"));
+            return true;
+        }
+        double roll = random.nextDouble();
+        if (roll < options.throttleRate) {
+            throttled.incrementAndGet();
+            responseHeaders.put("Retry-After", String.valueOf(options.retryAfterSeconds));
+            writeJson(out, 429, responseHeaders, error("Requests rate limit exceeded", "rate_limited"));
+            return true;
+        }
+        roll -= options.throttleRate;
+        if (roll < options.errorRate) {
+            errors.incrementAndGet();
+            sleep(options.latency.sampleMillis(random));
+            writeJson(out, options.errorStatus, responseHeaders, error("Internal server error", "server_error"));
+            return true;
+        }
+        roll -= options.errorRate;
+        boolean reset = roll < options.resetRate;
+
+        String[] tokens = completionTokens(random);
+        int promptTokens = estimatePromptTokens(request);
+        sleep(options.latency.sampleMillis(random));
+        if (stream) {
+            return streamCompletion(out, connection, responseHeaders, model, tokens, promptTokens, reset);
+        }
+        if (reset) {
+            reset(connection);
+            return false;
+        }
+        sleep(generationMillis(tokens.length));
+        writeJson(out, 200, responseHeaders, completion(model, tokens, promptTokens));
+        return true;
+    }
+
+    private boolean streamCompletion(OutputStream out, Socket connection, Map<String, String> responseHeaders,
+                                     String model, String[] tokens, int promptTokens, boolean reset)
+            throws IOException, InterruptedException {
+        StringBuilder head = new StringBuilder("HTTP/1.1 200 OK\r\n")
+                .append("Content-Type: text/event-stream\r\n")
+                .append("Cache-Control: no-cache\r\n")
+                .append("Transfer-Encoding: chunked\r\n");
+        responseHeaders.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+        out.write(head.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1));
+
+        String id = "cmpl-" + completionIds.incrementAndGet();
+        long created = System.currentTimeMillis() / 1000;
+        long tokenMillis = options.tokensPerSecond > 0 ? (long) (1000 / options.tokensPerSecond) : 0;
+        for (int i = 0; i < tokens.length; i++) {
+            if (reset && i == tokens.length / 2) {
+                reset(connection);
+                return false;
+            }
+            JsonObject delta = new JsonObject();
+            if (i == 0) {
+                delta.addProperty("role", "assistant");
+            }
+            delta.addProperty("content", tokens[i]);
+            writeChunk(out, "data: " + chunk(id, created, model, delta, null, null) + "\n\n");
+            out.flush();
+            sleep(tokenMillis);
+        }
+        writeChunk(out, "data: " + chunk(id, created, model, new JsonObject(), "stop",
+                usage(promptTokens, tokens.length)) + "\n\n");
+        writeChunk(out, "data: [DONE]\n\n");
+        out.write("0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        return true;
+    }
+
+    /**
+     * Counts the request against the key's quota and reports what is left.
+     *
+     * @return {@code false} when the quota is used up
+     */
+    private boolean takeQuota(String apiKey, Map<String, String> responseHeaders) {
+        int limit = options.requestsPerMinute;
+        if (limit <= 0) {
+            return true;
+        }
+        QuotaWindow window = quotaWindows.computeIfAbsent(apiKey != null ? apiKey : "", key -> new QuotaWindow());
+        long now = System.currentTimeMillis();
+        boolean allowed;
+        int remaining;
+        long resetMillis;
+        synchronized (window) {
+            if (now - window.startMillis >= WINDOW_MILLIS) {
+                window.startMillis = now;
+                window.used = 0;
+            }
+            allowed = window.used < limit;
+            if (allowed) {
+                window.used++;
+            }
+            remaining = limit - window.used;
+            resetMillis = window.startMillis + WINDOW_MILLIS - now;
+        }
+        responseHeaders.put("x-ratelimit-limit-requests", String.valueOf(limit));
+        responseHeaders.put("x-ratelimit-remaining-requests", String.valueOf(remaining));
+        responseHeaders.put("x-ratelimit-reset-requests", resetMillis + "ms");
+        if (!allowed) {
+            responseHeaders.put("Retry-After", String.valueOf(Math.max(1, (resetMillis + 999) / 1000)));
+        }
+        return allowed;
+    }
+
+    private String[] completionTokens(Random random) {
+        if (options.content != null) {
+            // Keep the separators with the words so that the streamed deltas add up to the exact content
+            return options.content.split("(?<=\\s)");
+        }
+        String[] tokens = new String[Math.max(1, options.completionTokens)];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = (i == 0 ? "" : " ") + "token" + random.nextInt(1000);
+        }
+        return tokens;
+    }
+
+    /**
+     * Rough prompt length at four characters per token, the usual rule of thumb for English text.
+     */
+    private static int estimatePromptTokens(JsonObject request) {
+        int characters = 0;
+        if (request.has("messages") && request.get("messages").isJsonArray()) {
+            for (JsonElement message : request.getAsJsonArray("messages")) {
+                JsonElement content = message.isJsonObject() ? message.getAsJsonObject().get("content") : null;
+                if (content != null) {
+                    characters += content.isJsonPrimitive() ? content.getAsString().length()
+                            : content.toString().length();
+                }
+            }
+        }
+        return Math.max(1, characters / 4);
+    }
+
+    private long generationMillis(int tokenCount) {
+        return options.tokensPerSecond > 0 ? (long) (tokenCount * 1000 / options.tokensPerSecond) : 0;
+    }
+
+    private String completion(String model, String[] tokens, int promptTokens) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", String.join("", tokens));
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", "stop");
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject response = new JsonObject();
+        response.addProperty("id", "cmpl-" + completionIds.incrementAndGet());
+        response.addProperty("object", "chat.completion");
+        response.addProperty("created", System.currentTimeMillis() / 1000);
+        response.addProperty("model", model);
+        response.add("choices", choices);
+        response.add("usage", usage(promptTokens, tokens.length));
+        return response.toString();
+    }
+
+    private static String chunk(String id, long created, String model, JsonObject delta, String finishReason,
+                                JsonObject usage) {
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("delta", delta);
+        choice.addProperty("finish_reason", finishReason);
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject chunk = new JsonObject();
+        chunk.addProperty("id", id);
+        chunk.addProperty("object", "chat.completion.chunk");
+        chunk.addProperty("created", created);
+        chunk.addProperty("model", model);
+        chunk.add("choices", choices);
+        if (usage != null) {
+            chunk.add("usage", usage);
+        }
+        return chunk.toString();
+    }
+
+    private static JsonObject usage(int promptTokens, int completionTokens) {
+        JsonObject usage = new JsonObject();
+        usage.addProperty("prompt_tokens", promptTokens);
+        usage.addProperty("completion_tokens", completionTokens);
+        usage.addProperty("total_tokens", promptTokens + completionTokens);
+        return usage;
+    }
+
+    private static String error(String message, String type) {
+        JsonObject error = new JsonObject();
+        error.addProperty("message", message);
+        error.addProperty("type", type);
+        JsonObject body = new JsonObject();
+        body.add("error", error);
+        return body.toString();
+    }
+
+    private static void writeJson(OutputStream out, int status, Map<String, String> headers, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        StringBuilder head = new StringBuilder("HTTP/1.1 ").append(status).append(' ').append(reason(status))
+                .append("\r\nContent-Type: application/json\r\nContent-Length: ").append(bytes.length).append("\r\n");
+        headers.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+        out.write(head.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1));
+        out.write(bytes);
+    }
+
+    private static void writeChunk(OutputStream out, String data) throws IOException {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        out.write((Integer.toHexString(bytes.length) + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.write(bytes);
+        out.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String reason(int status) {
+        switch (status) {
+            case 200:
+                return "OK";
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 429:
+                return "Too Many Requests";
+            case 502:
+                return "Bad Gateway";
+            case 503:
+                return "Service Unavailable";
+            case 504:
+                return "Gateway Timeout";
+            default:
+                return status >= 500 ? "Internal Server Error" : "Error";
+        }
+    }
+
+    /**
+     * Drops the connection with a TCP reset rather than an orderly close.
+     */
+    private void reset(Socket connection) throws IOException {
+        resets.incrementAndGet();
+        connection.setSoLinger(true, 0);
+        connection.close();
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    /**
+     * Reads a CRLF-terminated line, or returns {@code null} at the end of the stream.
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                int length = line.size();
+                byte[] bytes = line.toByteArray();
+                return new String(bytes, 0, length > 0 && bytes[length - 1] == '\r' ? length - 1 : length,
+                        StandardCharsets.ISO_8859_1);
+            }
+            if (line.size() >= MAX_HEADER_LINE) {
+                throw new IOException("Request line too long");
+            }
+            line.write(b);
+        }
+        return line.size() > 0 ? line.toString(StandardCharsets.ISO_8859_1.name()) : null;
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    private static byte[] readBody(InputStream in, Map<String, String> headers) throws IOException {
+        if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            int size;
+            while ((size = Integer.parseInt(readLine(in).split(";")[0].trim(), 16)) > 0) {
+                body.write(readFully(in, size));
+                readLine(in);
+            }
+            // Skip any trailers
+            String trailer;
+            do {
+                trailer = readLine(in);
+            } while (trailer != null && !trailer.isEmpty());
+            return body.toByteArray();
+        }
+        String contentLength = headers.get("content-length");
+        return contentLength != null ? readFully(in, Integer.parseInt(contentLength)) : new byte[0];
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int count = in.read(bytes, read, length - read);
+            if (count < 0) {
+                throw new IOException("Request body ended early");
+            }
+            read += count;
+        }
+        return bytes;
+    }
+
+    /**
+     * Runs a stand-in server until the process is stopped. Arguments are {@code name=value} pairs: {@code port},
+     * {@code latencyMillis} with optional {@code latencyP99Millis} for a log-normal spread, {@code tokensPerSecond},
+     * {@code completionTokens}, {@code errorRate}, {@code throttleRate}, {@code resetRate},
+     * {@code requestsPerMinute} and {@code seed}.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected name=value but got " + arg);
+            }
+            arguments.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        long latencyMillis = Long.parseLong(arguments.getOrDefault("latencyMillis", "0"));
+        long latencyP99Millis = Long.parseLong(arguments.getOrDefault("latencyP99Millis", "0"));
+        Builder builder = builder()
+                .port(Integer.parseInt(arguments.getOrDefault("port", "8089")))
+                .latency(latencyP99Millis > latencyMillis ? Latency.logNormal(latencyMillis, latencyP99Millis)
+                        : Latency.fixed(latencyMillis))
+                .tokensPerSecond(Double.parseDouble(arguments.getOrDefault("tokensPerSecond", "0")))
+                .completionTokens(Integer.parseInt(arguments.getOrDefault("completionTokens", "16")))
+                .errorRate(Double.parseDouble(arguments.getOrDefault("errorRate", "0")), 500)
+                .throttleRate(Double.parseDouble(arguments.getOrDefault("throttleRate", "0")), 1)
+                .resetRate(Double.parseDouble(arguments.getOrDefault("resetRate", "0")))
+                .requestsPerMinute(Integer.parseInt(arguments.getOrDefault("requestsPerMinute", "0")))
+                .seed(Long.parseLong(arguments.getOrDefault("seed", "42")));
+        MistralStandInServer server = builder.start();
+        System.out.println("Mistral stand-in listening on " + server.getCompletionsUrl());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+/**
+ * Client payloads and upstream responses the benchmarks run on. They are generated from a fixed seed, so every
+ * run measures the same bytes. Like the payloads of the OpenAI SDKs, the {@code model} field comes after the
+ * messages, which is the costly position for the model rewrite.
+ */
+final class PayloadCorpus {
+
+    /**
+     * Shapes of client request seen at the gateway.
+     */
+    enum Shape {
+        /** One short user prompt. */
+        SINGLE_PROMPT,
+        /** A chat history of 50 user and assistant turns. */
+        CONVERSATION,
+        /** A system message carrying about 1 MB of retrieved context. */
+        LARGE_CONTEXT,
+        /** A user message with text and base64-encoded image parts. */
+        IMAGES
+    }
+
+    private static final String[] WORDS = {"the", "gateway", "routes", "request", "to", "model", "with", "latency",
+            "budget", "of", "tokens", "and", "returns", "a", "summary", "for", "each", "tenant", "in", "order"};
+    private static final int CONVERSATION_TURNS = 50;
+    private static final int LARGE_CONTEXT_BYTES = 1024 * 1024;
+    private static final int IMAGE_COUNT = 3;
+    private static final int IMAGE_BYTES = 96 * 1024;
+
+    private PayloadCorpus() {
+    }
+
+    /**
+     * Returns the UTF-8 JSON body of a client request of the given shape.
+     */
+    static byte[] request(Shape shape) {
+        Random random = new Random(42);
+        JsonArray messages = new JsonArray();
+        switch (shape) {
+            case SINGLE_PROMPT:
+                messages.add(message("user", text(random, 40)));
+                break;
+            case CONVERSATION:
+                messages.add(message("system", text(random, 60)));
+                for (int turn = 0; turn < CONVERSATION_TURNS; turn++) {
+                    messages.add(message("user", text(random, 30 + random.nextInt(60))));
+                    messages.add(message("assistant", text(random, 80 + random.nextInt(160))));
+                }
+                messages.add(message("user", text(random, 40)));
+                break;
+            case LARGE_CONTEXT:
+                messages.add(message("system", "Answer from this context only:\n" + textOfSize(random,
+                        LARGE_CONTEXT_BYTES)));
+                messages.add(message("user", text(random, 40)));
+                break;
+            case IMAGES:
+                JsonArray parts = new JsonArray();
+                JsonObject textPart = new JsonObject();
+                textPart.addProperty("type", "text");
+                textPart.addProperty("text", text(random, 30));
+                parts.add(textPart);
+                for (int i = 0; i < IMAGE_COUNT; i++) {
+                    byte[] image = new byte[IMAGE_BYTES];
+                    random.nextBytes(image);
+                    JsonObject imageUrl = new JsonObject();
+                    imageUrl.addProperty("url", "data:image/png;base64," + Base64.getEncoder().encodeToString(image));
+                    JsonObject imagePart = new JsonObject();
+                    imagePart.addProperty("type", "image_url");
+                    imagePart.add("image_url", imageUrl);
+                    parts.add(imagePart);
+                }
+                JsonObject message = new JsonObject();
+                message.addProperty("role", "user");
+                message.add("content", parts);
+                messages.add(message);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown payload shape " + shape);
+        }
+        JsonObject payload = new JsonObject();
+        payload.add("messages", messages);
+        payload.addProperty("model", "gpt-4o-mini");
+        payload.addProperty("temperature", 0.7);
+        payload.addProperty("max_tokens", 512);
+        return payload.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a non-streamed completion response whose answer has about the given number of words.
+     */
+    static String completion(int words) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", text(new Random(7), words));
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", "stop");
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject usage = new JsonObject();
+        usage.addProperty("prompt_tokens", 120);
+        usage.addProperty("completion_tokens", words);
+        usage.addProperty("total_tokens", 120 + words);
+        JsonObject response = new JsonObject();
+        response.addProperty("id", "cmpl-benchmark");
+        response.addProperty("object", "chat.completion");
+        response.addProperty("created", 1700000000L);
+        response.addProperty("model", "mistral-large-latest");
+        response.add("choices", choices);
+        response.add("usage", usage);
+        return response.toString();
+    }
+
+    private static JsonObject message(String role, String content) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", role);
+        message.addProperty("content", content);
+        return message;
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder(words * 7);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(random.nextInt(12) == 0 ? ".\n" : " ");
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String textOfSize(Random random, int bytes) {
+        StringBuilder text = new StringBuilder(bytes + 64);
+        while (text.length() < bytes) {
+            text.append(text(random, 50)).append(".\n");
+        }
+        return text.toString();
+    }
+}
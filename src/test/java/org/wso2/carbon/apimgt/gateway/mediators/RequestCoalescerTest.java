@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescerTest {
+
+    @Test
+    public void followerSharesLeaderResult() throws Exception {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<>(10, 5000);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> coalescer.execute("key", () -> {
+                calls.incrementAndGet();
+                leaderStarted.countDown();
+                release.await();
+                return "response";
+            }, 5000));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> follower = coalescer.executeAsync("key", () -> {
+                calls.incrementAndGet();
+                return CompletableFuture.completedFuture("own");
+            }, 5000);
+            release.countDown();
+            assertEquals("response", leader.get(5, TimeUnit.SECONDS));
+            assertEquals("response", follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void followerSharesLeaderNull() throws Exception {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<>(10, 5000);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> leaderCall = new CompletableFuture<>();
+        CompletableFuture<String> leader = coalescer.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return leaderCall;
+        }, 5000);
+        CompletableFuture<String> follower = coalescer.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("own");
+        }, 5000);
+        leaderCall.complete(null);
+        assertNull(leader.get(5, TimeUnit.SECONDS));
+        assertNull(follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void followerSharesLeaderFailure() throws Exception {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<>(10, 5000);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> leaderCall = new CompletableFuture<>();
+        coalescer.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return leaderCall;
+        }, 5000);
+        CompletableFuture<String> follower = coalescer.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("own");
+        }, 5000);
+        IllegalStateException failure = new IllegalStateException("upstream down");
+        leaderCall.completeExceptionally(failure);
+        try {
+            follower.get(5, TimeUnit.SECONDS);
+            fail("Expected the leader's failure");
+        } catch (ExecutionException e) {
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void synchronousFailureDoesNotLeaveFlightBehind() throws Exception {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<>(10, 5000);
+        IllegalStateException failure = new IllegalStateException("no permit");
+        try {
+            coalescer.executeAsync("key", () -> {
+                throw failure;
+            }, 5000);
+            fail("Expected the call's exception");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+        CompletableFuture<String> next = coalescer.executeAsync("key",
+                () -> CompletableFuture.completedFuture("fresh"), 5000);
+        assertEquals("fresh", next.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void followerCallsItselfAfterWaitTimeout() throws Exception {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<>(10, 50);
+        CompletableFuture<String> leaderCall = new CompletableFuture<>();
+        coalescer.executeAsync("key", () -> leaderCall, 5000);
+        CompletableFuture<String> follower = coalescer.executeAsync("key",
+                () -> CompletableFuture.completedFuture("own"), 5000);
+        assertEquals("own", follower.get(5, TimeUnit.SECONDS));
+        leaderCall.complete("late");
+    }
+
+    @Test
+    public void blockingFollowerSharesLeaderNull() throws Exception {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<>(10, 5000);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> leaderCall = new CompletableFuture<>();
+        coalescer.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return leaderCall;
+        }, 5000);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> follower = executor.submit(() -> coalescer.execute("key", () -> {
+                calls.incrementAndGet();
+                return "own";
+            }, 5000));
+            Thread.sleep(50);
+            leaderCall.complete(null);
+            assertNull(follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RequestDeadlineTest {
+
+    @Test
+    public void noBudgetNeverExpires() {
+        assertSame(RequestDeadline.NONE, RequestDeadline.after(0));
+        assertSame(RequestDeadline.NONE, RequestDeadline.after(-1));
+        assertFalse(RequestDeadline.NONE.isBounded());
+        assertFalse(RequestDeadline.NONE.isExpired());
+        assertEquals(Long.MAX_VALUE, RequestDeadline.NONE.remainingMillis());
+        assertEquals(120000, RequestDeadline.NONE.capMillis(120000));
+    }
+
+    @Test
+    public void capsTimeoutsAtRemainingTime() {
+        RequestDeadline deadline = RequestDeadline.after(10000);
+        assertTrue(deadline.isBounded());
+        assertFalse(deadline.isExpired());
+        long remaining = deadline.remainingMillis();
+        assertTrue(remaining > 5000 && remaining <= 10000);
+        assertEquals(500, deadline.capMillis(500));
+        assertTrue(deadline.capMillis(120000) <= 10000);
+    }
+
+    @Test
+    public void expiresOnceBudgetIsSpent() throws InterruptedException {
+        RequestDeadline deadline = RequestDeadline.after(1);
+        Thread.sleep(20);
+        assertTrue(deadline.isExpired());
+        assertEquals(0, deadline.remainingMillis());
+        assertEquals(0, deadline.capMillis(120000));
+    }
+}
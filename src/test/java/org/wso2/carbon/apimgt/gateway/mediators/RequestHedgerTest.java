@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class RequestHedgerTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    private static RequestHedger hedger(double budgetPercent) {
+        return new RequestHedger(TransformConfig.parse("{\"hedgingPercentile\":95,\"hedgingBudgetPercent\":"
+                + budgetPercent + ",\"hedgingMinDelayMillis\":20}"));
+    }
+
+    private static RequestHedger.Attempt<String> answered(String value) {
+        return new RequestHedger.Attempt<>(CompletableFuture.completedFuture(null),
+                CompletableFuture.completedFuture(value), () -> { });
+    }
+
+    /**
+     * Runs enough calls with immediate headers for the hedger to pick its delay, which is then the minimum.
+     */
+    private static void warmUp(RequestHedger hedger) {
+        for (int i = 0; i < 32; i++) {
+            hedger.execute(() -> answered("warm"), () -> answered("hedge"), DIRECT).join();
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), hedger.getHedgeDelayNanos());
+    }
+
+    @Test
+    public void noHedgeBeforeEnoughSamples() {
+        RequestHedger hedger = hedger(100);
+        AtomicInteger hedges = new AtomicInteger();
+        String result = hedger.execute(() -> answered("primary"), () -> {
+            hedges.incrementAndGet();
+            return answered("hedge");
+        }, DIRECT).join();
+        assertEquals("primary", result);
+        assertEquals(-1, hedger.getHedgeDelayNanos());
+        assertEquals(0, hedges.get());
+    }
+
+    @Test
+    public void lateHeadersAreHedgedAndLoserCancelled() throws Exception {
+        RequestHedger hedger = hedger(100);
+        warmUp(hedger);
+        CompletableFuture<Void> primaryCancelled = new CompletableFuture<>();
+        CompletableFuture<String> primaryResult = new CompletableFuture<>();
+        String result = hedger.execute(
+                () -> new RequestHedger.Attempt<>(new CompletableFuture<>(), primaryResult,
+                        () -> primaryCancelled.complete(null)),
+                () -> answered("hedge"), DIRECT).join();
+        assertEquals("hedge", result);
+        // The loser is cancelled right after the winner completes, on the hedge's thread
+        primaryCancelled.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void headersOnTimeAreNotHedged() throws InterruptedException {
+        RequestHedger hedger = hedger(100);
+        warmUp(hedger);
+        AtomicInteger hedges = new AtomicInteger();
+        String result = hedger.execute(() -> answered("primary"), () -> {
+            hedges.incrementAndGet();
+            return answered("hedge");
+        }, DIRECT).join();
+        Thread.sleep(50);
+        assertEquals("primary", result);
+        assertEquals(0, hedges.get());
+    }
+
+    @Test
+    public void noHedgeWithoutBudget() throws InterruptedException {
+        RequestHedger hedger = hedger(0);
+        warmUp(hedger);
+        AtomicInteger hedges = new AtomicInteger();
+        CompletableFuture<String> primaryResult = new CompletableFuture<>();
+        CompletableFuture<String> result = hedger.execute(
+                () -> new RequestHedger.Attempt<>(new CompletableFuture<>(), primaryResult, () -> { }),
+                () -> {
+                    hedges.incrementAndGet();
+                    return answered("hedge");
+                }, DIRECT);
+        Thread.sleep(50);
+        assertFalse(result.isDone());
+        assertEquals(0, hedges.get());
+        primaryResult.complete("primary");
+        assertEquals("primary", result.join());
+    }
+
+    @Test
+    public void failedPrimaryLeavesRaceToHedge() throws InterruptedException {
+        RequestHedger hedger = hedger(100);
+        warmUp(hedger);
+        CompletableFuture<String> primaryResult = new CompletableFuture<>();
+        CompletableFuture<String> hedgeResult = new CompletableFuture<>();
+        CompletableFuture<String> result = hedger.execute(
+                () -> new RequestHedger.Attempt<>(new CompletableFuture<>(), primaryResult, () -> { }),
+                () -> new RequestHedger.Attempt<>(new CompletableFuture<>(), hedgeResult, () -> { }), DIRECT);
+        // The hedge has joined the race once the race listens to its result
+        while (hedgeResult.getNumberOfDependents() == 0) {
+            Thread.sleep(1);
+        }
+        primaryResult.complete(null);
+        assertFalse(result.isDone());
+        hedgeResult.complete("hedge");
+        assertEquals("hedge", result.join());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseCacheTest {
+
+    @Test
+    public void returnsCachedResponse() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 0);
+        cache.put("key", "response", 60_000);
+        assertEquals("response", cache.get("key"));
+        assertNull(cache.get("other"));
+    }
+
+    @Test
+    public void dropsExpiredResponseOnRead() throws InterruptedException {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 0);
+        cache.put("key", "response", 1);
+        Thread.sleep(5);
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.weightedSize());
+    }
+
+    @Test
+    public void sweepRemovesExpiredResponsesOnly() throws InterruptedException {
+        ResponseCache cache = new ResponseCache(64L * 1024 * 1024, 0);
+        for (int i = 0; i < 100; i++) {
+            cache.put("short-" + i, "response", 1);
+            cache.put("long-" + i, "response", 60_000);
+        }
+        Thread.sleep(5);
+        assertEquals(100, cache.sweepExpired());
+        assertEquals(0, cache.sweepExpired());
+        assertEquals("response", cache.get("long-7"));
+    }
+
+    @Test
+    public void staysWithinByteBound() {
+        long maxBytes = 4L * 1024 * 1024;
+        ResponseCache cache = new ResponseCache(maxBytes, 0);
+        String response = new String(new char[2000]).replace('\0', 'x');
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("key-" + i, response, 60_000);
+        }
+        assertTrue(cache.weightedSize() <= maxBytes);
+        assertTrue(cache.weightedSize() > maxBytes / 2);
+    }
+
+    @Test
+    public void frequentEntrySurvivesScanOfOneOffEntries() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 0);
+        String response = new String(new char[1000]).replace('\0', 'x');
+        cache.put("popular", response, 60_000);
+        for (int i = 0; i < 20; i++) {
+            cache.get("popular");
+        }
+        for (int i = 0; i < 5_000; i++) {
+            cache.put("once-" + i, response, 60_000);
+        }
+        assertEquals(response, cache.get("popular"));
+    }
+}
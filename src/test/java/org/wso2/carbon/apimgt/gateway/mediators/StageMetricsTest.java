@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StageMetricsTest {
+
+    private static final TransformConfig CONFIG = TransformConfig.parse("{}");
+
+    private static ObjectName mediationName(String api) throws Exception {
+        return new ObjectName(StageMetrics.DOMAIN + ":type=TransformStageLatency,stage=mediation,api="
+                + ObjectName.quote(api) + ",backend=" + ObjectName.quote("stage-test"));
+    }
+
+    @Test
+    public void lastReleaseUnregistersRoute() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        int before = StageMetrics.routeCount();
+        StageMetrics first = StageMetrics.forRoute("released", "stage-test", null, CONFIG);
+        StageMetrics second = StageMetrics.forRoute("released", "stage-test", null, CONFIG);
+        assertSame(first, second);
+        first.record(StageMetrics.Stage.MEDIATION, System.nanoTime());
+        assertTrue(server.isRegistered(mediationName("released")));
+        assertEquals(before + 1, StageMetrics.routeCount());
+
+        first.release();
+        assertTrue(server.isRegistered(mediationName("released")));
+        second.release();
+        assertFalse(server.isRegistered(mediationName("released")));
+        assertEquals(before, StageMetrics.routeCount());
+
+        // A stale holder no longer registers anything, and a redeployed API gets a fresh route
+        second.record(StageMetrics.Stage.MEDIATION, System.nanoTime());
+        assertFalse(server.isRegistered(mediationName("released")));
+        StageMetrics redeployed = StageMetrics.forRoute("released", "stage-test", null, CONFIG);
+        assertNotSame(first, redeployed);
+        redeployed.release();
+    }
+
+    @Test
+    public void stopsMeasuringNewRoutesAtCap() {
+        TransformConfig capped = TransformConfig.parse(
+                "{\"stageMetricsMaxRoutes\":" + (StageMetrics.routeCount() + 1) + "}");
+        StageMetrics admitted = StageMetrics.forRoute("admitted", "stage-test", null, capped);
+        StageMetrics refused = StageMetrics.forRoute("refused", "stage-test", null, capped);
+        assertNotSame(StageMetrics.DISABLED, admitted);
+        assertSame(StageMetrics.DISABLED, refused);
+        // Routes already measured are still handed out at the cap
+        StageMetrics again = StageMetrics.forRoute("admitted", "stage-test", null, capped);
+        assertSame(admitted, again);
+
+        refused.release();
+        again.release();
+        admitted.release();
+        assertSame(StageMetrics.DISABLED, StageMetrics.forRoute("disabled", "stage-test", null,
+                TransformConfig.parse("{\"stageMetricsEnabled\":false}")));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonObject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenUsageRecorderTest {
+
+    private static final TokenUsageRecorder.Account ACCOUNT =
+            new TokenUsageRecorder.Account("carbon.super", "orders", "default-model");
+
+    private final TokenUsageRecorder recorder = new TokenUsageRecorder(3_600_000);
+
+    @After
+    public void shutDown() {
+        recorder.shutdown();
+    }
+
+    private static byte[] response(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void accumulatesUntilReportAndReportsDifference() {
+        recorder.record(ACCOUNT, response("{\"model\":\"m\",\"choices\":[],"
+                + "\"usage\":{\"prompt_tokens\":10,\"completion_tokens\":4,\"total_tokens\":14}}"));
+        recorder.record(ACCOUNT, response("{\"model\":\"m\",\"usage\":{\"prompt_tokens\":5,\"completion_tokens\":1}}"));
+        recorder.record(ACCOUNT, response("{\"choices\":[]}"));
+
+        List<JsonObject> reports = recorder.collectReports();
+        assertEquals(2, reports.size());
+        JsonObject counted = reports.get(0).get("model").getAsString().equals("m") ? reports.get(0) : reports.get(1);
+        JsonObject unnamed = counted == reports.get(0) ? reports.get(1) : reports.get(0);
+        assertEquals("carbon.super", counted.get("tenant").getAsString());
+        assertEquals("orders", counted.get("api").getAsString());
+        assertEquals(2, counted.get("requests").getAsLong());
+        assertEquals(15, counted.get("promptTokens").getAsLong());
+        assertEquals(5, counted.get("completionTokens").getAsLong());
+        assertEquals(20, counted.get("totalTokens").getAsLong());
+        assertEquals("default-model", unnamed.get("model").getAsString());
+        assertEquals(1, unnamed.get("requests").getAsLong());
+        assertEquals(0, unnamed.get("totalTokens").getAsLong());
+
+        recorder.record(ACCOUNT, response("{\"model\":\"m\",\"usage\":{\"prompt_tokens\":7,\"completion_tokens\":3}}"));
+        reports = recorder.collectReports();
+        assertEquals(1, reports.size());
+        assertEquals(1, reports.get(0).get("requests").getAsLong());
+        assertEquals(10, reports.get(0).get("totalTokens").getAsLong());
+    }
+
+    @Test
+    public void dropsCountersWithoutTraffic() {
+        recorder.record(ACCOUNT, response("{\"model\":\"m\",\"usage\":{\"prompt_tokens\":1,\"completion_tokens\":1}}"));
+        assertEquals(1, recorder.collectReports().size());
+        assertEquals(1, recorder.size());
+
+        assertTrue(recorder.collectReports().isEmpty());
+        assertEquals(0, recorder.size());
+        assertTrue(recorder.collectReports().isEmpty());
+
+        recorder.record(ACCOUNT, response("{\"model\":\"m\",\"usage\":{\"prompt_tokens\":2,\"completion_tokens\":0}}"));
+        List<JsonObject> reports = recorder.collectReports();
+        assertEquals(1, reports.size());
+        assertEquals(2, reports.get(0).get("totalTokens").getAsLong());
+    }
+}
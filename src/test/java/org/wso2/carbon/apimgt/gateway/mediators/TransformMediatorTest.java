@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.apache.synapse.config.SynapseConfiguration;
+import org.apache.synapse.core.SynapseEnvironment;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.apache.synapse.mediators.base.SequenceMediator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.api.APIConstants;
+import org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TransformMediatorTest {
+
+    private final CountDownLatch resumed = new CountDownLatch(1);
+    private final AtomicReference<SequenceMediator> resumedSequence = new AtomicReference<>();
+    private final TransformMediator mediator = new TransformMediator();
+
+    @Before
+    public void setUp() {
+        SynapseEnvironment environment = (SynapseEnvironment) Proxy.newProxyInstance(
+                SynapseEnvironment.class.getClassLoader(), new Class<?>[]{SynapseEnvironment.class},
+                (proxy, method, args) -> {
+                    if ("injectAsync".equals(method.getName())) {
+                        resumedSequence.set((SequenceMediator) args[1]);
+                        resumed.countDown();
+                    }
+                    return null;
+                });
+        mediator.setTransformConfigs("{\"healthProbeEnabled\":false,\"tokenUsageEnabled\":false}");
+        mediator.init(environment);
+    }
+
+    @After
+    public void tearDown() {
+        mediator.destroy();
+    }
+
+    private static Axis2MessageContext messageContext() {
+        return new Axis2MessageContext(new org.apache.axis2.context.MessageContext(), new SynapseConfiguration(),
+                null);
+    }
+
+    /**
+     * Completes an async call with no response and returns the message context once the flow has resumed.
+     */
+    private Axis2MessageContext resumeWithoutResponse(RequestDeadline deadline, SequenceMediator sequence)
+            throws InterruptedException {
+        Axis2MessageContext messageContext = messageContext();
+        CompletableFuture<String> upstreamCall = new CompletableFuture<>();
+        mediator.resumeAfter(upstreamCall, messageContext, sequence, deadline, StageMetrics.DISABLED,
+                System.nanoTime(), response -> {
+                    throw new AssertionError("No response expected");
+                });
+        upstreamCall.complete(null);
+        assertTrue(resumed.await(5, TimeUnit.SECONDS));
+        assertSame(sequence, resumedSequence.get());
+        return messageContext;
+    }
+
+    @Test
+    public void answersGatewayTimeoutWhenDeadlinePassedDuringCall() throws InterruptedException {
+        RequestDeadline deadline = RequestDeadline.after(1);
+        Thread.sleep(20);
+        Axis2MessageContext messageContext = resumeWithoutResponse(deadline, new SequenceMediator());
+        assertEquals(APIConstants.AIAPIConstants.REJECT_ENDPOINT,
+                messageContext.getProperty(APIConstants.AIAPIConstants.TARGET_ENDPOINT));
+        assertEquals(504, messageContext.getAxis2MessageContext().getProperty(APIMgtGatewayConstants.HTTP_SC));
+    }
+
+    @Test
+    public void rejectsFailedCallWithoutTimeoutWithinDeadline() throws InterruptedException {
+        Axis2MessageContext messageContext = resumeWithoutResponse(RequestDeadline.after(60000),
+                new SequenceMediator());
+        assertEquals(APIConstants.AIAPIConstants.REJECT_ENDPOINT,
+                messageContext.getProperty(APIConstants.AIAPIConstants.TARGET_ENDPOINT));
+        assertNull(messageContext.getAxis2MessageContext().getProperty(APIMgtGatewayConstants.HTTP_SC));
+    }
+
+    @Test
+    public void appliesResponseAndResumes() throws InterruptedException {
+        Axis2MessageContext messageContext = messageContext();
+        AtomicReference<String> applied = new AtomicReference<>();
+        SequenceMediator sequence = new SequenceMediator();
+        mediator.resumeAfter(CompletableFuture.completedFuture("{}"), messageContext, sequence,
+                RequestDeadline.NONE, StageMetrics.DISABLED, System.nanoTime(), applied::set);
+        assertTrue(resumed.await(5, TimeUnit.SECONDS));
+        assertEquals("{}", applied.get());
+        assertSame(sequence, resumedSequence.get());
+        assertNull(messageContext.getProperty(APIConstants.AIAPIConstants.TARGET_ENDPOINT));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-payload work the mediator does on every request: parsing, extracting the user content (the former
+ * {@code extractContentFromJsonPayload} and {@code extractFromMessagesList}), forcing the backend model (the
+ * former {@code removeUserModelFromRequest}, without the Axis2 message rebuild) and hashing for the response cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TransformRequestBenchmark {
+
+    @Param({"SINGLE_PROMPT", "CONVERSATION", "LARGE_CONTEXT", "IMAGES"})
+    public PayloadCorpus.Shape shape;
+
+    private byte[] rawPayload;
+    private TransformRequest parsed;
+    private final byte[] drainBuffer = new byte[8192];
+
+    @Setup
+    public void setUp() {
+        rawPayload = PayloadCorpus.request(shape);
+        parsed = TransformRequest.parse(rawPayload);
+    }
+
+    @Benchmark
+    public TransformRequest parse() {
+        return TransformRequest.parse(rawPayload);
+    }
+
+    @Benchmark
+    public String parseAndExtractUserContent() {
+        return TransformRequest.parse(rawPayload).getUserContent();
+    }
+
+    /**
+     * Reads the rewritten payload to the end, as the message builder does.
+     */
+    @Benchmark
+    public long rewriteModel() throws IOException {
+        long length = 0;
+        try (InputStream rewritten = parsed.rewriteModel("mistral-large-latest")) {
+            int count;
+            while ((count = rewritten.read(drainBuffer)) != -1) {
+                length += count;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class TransformRequestTest {
+
+    @Test
+    public void forcesModelOverEscapedKey() throws IOException {
+        JsonObject rewritten = rewrite(
+                "{\"mod\\u0065l\":\"gpt-4\",\"messages\":[{\"role\":\"user\",\"content\":\"hi\"}]}");
+        assertEquals("mistral-large-latest", rewritten.get("model").getAsString());
+        assertEquals(2, rewritten.size());
+    }
+
+    @Test
+    public void forcesModelOverDuplicateKey() throws IOException {
+        String payload = "{\"model\":\"mistral-small\",\"messages\":[{\"role\":\"user\",\"content\":\"hi\"}],"
+                + "\"model\":\"gpt-4\"}";
+        String rewritten = rewriteToString(payload);
+        assertEquals("mistral-large-latest", JsonParser.parseString(rewritten).getAsJsonObject().get("model")
+                .getAsString());
+        assertEquals(-1, rewritten.indexOf("gpt-4"));
+    }
+
+    @Test
+    public void splicesPlainPayload() throws IOException {
+        assertEquals("{\"messages\":[],\"model\":\"mistral-large-latest\",\"temperature\":0}",
+                rewriteToString("{\"messages\":[],\"model\":\"gpt-4\",\"temperature\":0}"));
+    }
+
+    private static JsonObject rewrite(String payload) throws IOException {
+        return JsonParser.parseString(rewriteToString(payload)).getAsJsonObject();
+    }
+
+    private static String rewriteToString(String payload) throws IOException {
+        TransformRequest request = TransformRequest.parse(payload.getBytes(StandardCharsets.UTF_8));
+        try (InputStream rewritten = request.rewriteModel("mistral-large-latest")) {
+            return new String(rewritten.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
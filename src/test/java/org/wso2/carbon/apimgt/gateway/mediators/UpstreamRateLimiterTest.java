@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026 WSO2 LLC. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.mediators;
+
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UpstreamRateLimiterTest {
+
+    @Test
+    public void parsesResetDurations() {
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), UpstreamRateLimiter.parseDurationNanos("20ms"));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), UpstreamRateLimiter.parseDurationNanos("1s"));
+        assertEquals(TimeUnit.SECONDS.toNanos(360), UpstreamRateLimiter.parseDurationNanos("6m0s"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1500), UpstreamRateLimiter.parseDurationNanos("1.5"));
+        assertEquals(TimeUnit.MINUTES.toNanos(61), UpstreamRateLimiter.parseDurationNanos("1h1m"));
+        assertEquals(-1, UpstreamRateLimiter.parseDurationNanos(null));
+        assertEquals(-1, UpstreamRateLimiter.parseDurationNanos(" "));
+        assertEquals(-1, UpstreamRateLimiter.parseDurationNanos("soon"));
+    }
+
+    @Test
+    public void parsesRetryAfterInSecondsOrAsDate() {
+        assertEquals(TimeUnit.SECONDS.toNanos(3), UpstreamRateLimiter.parseRetryAfterNanos("3"));
+        String inTenSeconds = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(10));
+        long nanos = UpstreamRateLimiter.parseRetryAfterNanos(inTenSeconds);
+        assertTrue(nanos > TimeUnit.SECONDS.toNanos(8) && nanos <= TimeUnit.SECONDS.toNanos(10));
+        assertEquals(-1, UpstreamRateLimiter.parseRetryAfterNanos("tomorrow"));
+    }
+
+    @Test
+    public void parsesHeaderNumbers() {
+        assertEquals(42, UpstreamRateLimiter.parseLong(" 42 "));
+        assertEquals(-1, UpstreamRateLimiter.parseLong("4.2"));
+        assertEquals(-1, UpstreamRateLimiter.parseLong(null));
+    }
+
+    @Test
+    public void unknownQuotaDoesNotDelay() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(1000);
+        assertEquals(0, limiter.reserve());
+        assertTrue(limiter.tryReserve());
+    }
+
+    @Test
+    public void throttlingHoldsCallsForRetryAfter() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(5000);
+        limiter.onResponse(headers("Retry-After", "2"), 429);
+        long delay = limiter.reserve();
+        assertTrue(delay > TimeUnit.SECONDS.toNanos(1) && delay <= TimeUnit.SECONDS.toNanos(2));
+        assertFalse(limiter.tryReserve());
+    }
+
+    @Test
+    public void waitBeyondPacingBudgetIsRejected() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(100);
+        limiter.onResponse(headers("Retry-After", "2"), 429);
+        assertEquals(-1, limiter.reserve());
+    }
+
+    @Test
+    public void exhaustedRequestBudgetPacesCalls() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(5000);
+        limiter.onResponse(headers("x-ratelimit-limit-requests", "60", "x-ratelimit-remaining-requests", "1"), 200);
+        // One request is kept in reserve, and 60 per minute refill one a second
+        long delay = limiter.reserve();
+        assertTrue(delay > TimeUnit.MILLISECONDS.toNanos(900) && delay <= TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void requestRefillFollowsReportedReset() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(5000);
+        limiter.onResponse(headers("x-ratelimit-limit-requests", "100", "x-ratelimit-remaining-requests", "1",
+                "x-ratelimit-reset-requests", "9.9s"), 200);
+        // 99 used requests back within 9.9 s refill one every 100 ms
+        long delay = limiter.reserve();
+        assertTrue(delay > TimeUnit.MILLISECONDS.toNanos(90) && delay <= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void retryAfterZeroRetriesAtOnce() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(5000);
+        limiter.onResponse(headers("Retry-After", "0"), 429);
+        assertEquals(0, limiter.reserve());
+    }
+
+    @Test
+    public void throttlingWithoutRetryAfterHoldsBriefly() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(5000);
+        limiter.onResponse(headers(), 429);
+        long delay = limiter.reserve();
+        assertTrue(delay > 0 && delay <= TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void exhaustedTokenBudgetHoldsUntilReset() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(5000);
+        limiter.onResponse(headers("x-ratelimit-remaining-tokens", "0", "x-ratelimit-reset-tokens", "3s"), 200);
+        long delay = limiter.reserve();
+        assertTrue(delay > TimeUnit.SECONDS.toNanos(2) && delay <= TimeUnit.SECONDS.toNanos(3));
+    }
+
+    @Test
+    public void exhaustedTokenBudgetWithoutResetHoldsBriefly() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(5000);
+        limiter.onResponse(headers("x-ratelimitbysize-remaining-minute", "0"), 200);
+        long delay = limiter.reserve();
+        assertTrue(delay > 0 && delay <= TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static Function<String, String> headers(String... namesAndValues) {
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            headers.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return headers::get;
+    }
+}